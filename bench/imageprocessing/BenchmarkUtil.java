@@ -0,0 +1,55 @@
+package imageprocessing;
+
+import java.util.Random;
+
+import imageprocessing.operation.Image;
+
+/**
+ * This class contains utility methods shared by the benchmarks of the program: timing a piece of
+ * work, and creating images of a given size to run it on.
+ */
+public class BenchmarkUtil {
+
+  /**
+   * Run the given work a few times to warm up the JIT compiler, then run it the given number of
+   * times and return the best wall-clock time of one run in milliseconds.
+   *
+   * @param work the work to be timed
+   * @param runs the number of timed runs
+   * @return the best time of one run in milliseconds
+   */
+  public static double time(Runnable work, int runs) {
+    for (int k = 0; k < 3; k++) {
+      work.run();
+    }
+
+    long best = Long.MAX_VALUE;
+    for (int k = 0; k < runs; k++) {
+      long start = System.nanoTime();
+      work.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+
+    return best / 1e6;
+  }
+
+  /**
+   * Create an image of the given size filled with random colors. The same seed always gives the
+   * same image.
+   *
+   * @param height the height of the image
+   * @param width  the width of the image
+   * @param seed   the seed of the random colors
+   * @return the image filled with random colors
+   */
+  public static Image randomImage(int height, int width, long seed) {
+    Random random = new Random(seed);
+    int[] pixels = new int[height * width];
+
+    for (int k = 0; k < pixels.length; k++) {
+      pixels[k] = random.nextInt(0x1000000);
+    }
+
+    return new Image(height, width, pixels);
+  }
+}
@@ -0,0 +1,76 @@
+package imageprocessing.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import imageprocessing.BenchmarkUtil;
+import imageprocessing.operation.Image;
+import imageprocessing.operation.ImageBlurring;
+
+/**
+ * This class contains a benchmark of the undo and redo operations of the model. It records a few
+ * blurred images in the history, and times undoing and redoing through them when their snapshots
+ * are hot (compressed on the heap) and cold (spilled to a scratch file), along with the memory the
+ * history takes on the heap.
+ */
+public class HistoryUndoBenchmark {
+  private static final int STATES = 6;
+  private static final int RUNS = 3;
+
+  /**
+   * Run the benchmark and print the mean latency of an undo and a redo (including decompressing
+   * the image) in milliseconds. The directory of the scratch file can be given as an argument, and
+   * defaults to a temporary directory.
+   *
+   * @param args the directory of the scratch file
+   * @throws IOException if the temporary directory cannot be created
+   */
+  public static void main(String[] args) throws IOException {
+    Path directory = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("history");
+    directory.toFile().deleteOnExit();
+    int[][] sizes = {{1000, 1500}, {2000, 3000}, {4000, 6000}};
+
+    System.out.printf("%-11s %-5s %9s %9s %12s %12s%n", "size", "kind", "undo", "redo", "heap MB",
+            "spilled MB");
+
+    for (int[] size : sizes) {
+      Image img = new ImageBlurring(BenchmarkUtil.randomImage(size[0], size[1], 0)).apply();
+      // room for the current image and the headers of the spilled snapshots, not for a snapshot
+      long budget = History.bytesOf(img) + History.bytesOf(img) / 8;
+
+      for (boolean cold : new boolean[] {false, true}) {
+        ImgProcModel model = cold ? new ImgProcModel(false, budget, directory)
+                : new ImgProcModel(false, Long.MAX_VALUE);
+        model.setImage(img);
+        for (int k = 0; k < STATES; k++) {
+          model.process(ProcessingOperation.BLUR);
+        }
+        model.getImage();
+
+        double undo = 0;
+        double redo = 0;
+        for (int run = 0; run < RUNS; run++) {
+          for (int k = 0; k < STATES; k++) {
+            long start = System.nanoTime();
+            model.undo();
+            model.getImage();
+            undo += System.nanoTime() - start;
+          }
+          for (int k = 0; k < STATES; k++) {
+            long start = System.nanoTime();
+            model.redo();
+            model.getImage();
+            redo += System.nanoTime() - start;
+          }
+        }
+
+        String[] report = model.getHistoryReport().split("\\s+");
+        System.out.printf("%-11s %-5s %9.2f %9.2f %12s %12s%n", size[0] + "x" + size[1],
+                cold ? "cold" : "hot", undo / 1e6 / (RUNS * STATES), redo / 1e6 / (RUNS * STATES),
+                report[4], report[report.length - 5]);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package imageprocessing.operation;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of the wavefront-parallel dithering. It times dithering across
+ * numbers of threads and image sizes, and checks that every number of threads gives the same result
+ * as one thread.
+ */
+public class DitherScalingBenchmark {
+
+  /**
+   * Run the benchmark and print the results in milliseconds, with the speedup over one thread. The
+   * numbers of threads to try can be given as arguments, and default to 1, 2, 4, 8 and 16.
+   *
+   * @param args the numbers of threads to try
+   */
+  public static void main(String[] args) {
+    int[] threads = {1, 2, 4, 8, 16};
+    if (args.length > 0) {
+      threads = new int[args.length];
+      for (int k = 0; k < args.length; k++) {
+        threads[k] = Integer.parseInt(args[k]);
+      }
+    }
+    int[][] sizes = {{1000, 1500}, {2000, 3000}, {4000, 6000}};
+
+    System.out.printf("%-11s %8s %10s %8s%n", "size", "threads", "dither", "speedup");
+
+    for (int[] size : sizes) {
+      Image img = BenchmarkUtil.randomImage(size[0], size[1], 0);
+      ParallelExecutor.setThreads(1);
+      Image expected = new Dither(img).apply();
+      double serial = 0;
+
+      for (int n : threads) {
+        ParallelExecutor.setThreads(n);
+
+        if (!new Dither(img).apply().getPixels().equals(expected.getPixels())) {
+          throw new IllegalStateException("Result differs with " + n + " threads");
+        }
+
+        double dither = BenchmarkUtil.time(() -> new Dither(img).apply(), 3);
+        if (n == 1) {
+          serial = dither;
+        }
+
+        System.out.printf("%-11s %8d %10.2f %8s%n", size[0] + "x" + size[1], n, dither,
+                serial > 0 ? String.format("%.2f", serial / dither) : "-");
+      }
+    }
+
+    ParallelExecutor.setThreads(1);
+  }
+}
@@ -0,0 +1,51 @@
+package imageprocessing.operation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of the ways a mosaic finds the seed of every pixel (see {@link
+ * MosaicMode}). It times the search for the nearest seed in the grid of seeds and the distance
+ * transform across numbers of seeds, and checks that both give the same labels.
+ */
+public class MosaicLabelingBenchmark {
+
+  /**
+   * Run the benchmark and print the results in milliseconds. The size of the image can be given as
+   * arguments (height, then width), and defaults to 2000x3000.
+   *
+   * @param args the height and width of the image
+   */
+  public static void main(String[] args) {
+    int height = args.length > 1 ? Integer.parseInt(args[0]) : 2000;
+    int width = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+    int[] counts = {100, 1000, 10000, 100000};
+    Random random = new Random(0);
+
+    System.out.printf("%-11s %8s %14s %20s%n", "size", "seeds", "nearest_seed",
+            "distance_transform");
+
+    for (int n : counts) {
+      int[] seedRows = new int[n];
+      int[] seedCols = new int[n];
+      for (int s = 0; s < n; s++) {
+        seedRows[s] = random.nextInt(height);
+        seedCols[s] = random.nextInt(width);
+      }
+
+      if (!Arrays.equals(Mosaic.label(height, width, seedRows, seedCols, MosaicMode.NEAREST_SEED),
+              Mosaic.label(height, width, seedRows, seedCols, MosaicMode.DISTANCE_TRANSFORM))) {
+        throw new IllegalStateException("Labels differ with " + n + " seeds");
+      }
+
+      double nearest = BenchmarkUtil.time(() -> Mosaic.label(height, width, seedRows, seedCols,
+              MosaicMode.NEAREST_SEED), 3);
+      double transform = BenchmarkUtil.time(() -> Mosaic.label(height, width, seedRows, seedCols,
+              MosaicMode.DISTANCE_TRANSFORM), 3);
+
+      System.out.printf("%-11s %8d %14.2f %20.2f%n", height + "x" + width, n, nearest, transform);
+    }
+  }
+}
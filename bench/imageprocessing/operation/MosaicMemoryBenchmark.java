@@ -0,0 +1,128 @@
+package imageprocessing.operation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of the memory use of the mosaic operation. It compares the
+ * clustering of the pixels by a label array and running sums (see {@link Mosaic}) with a list of
+ * the coordinates of its pixels per cluster, as the mosaic operation used to keep, by the time,
+ * the bytes allocated and the garbage collections of one run.
+ */
+public class MosaicMemoryBenchmark {
+
+  /**
+   * Run the benchmark and print the results. The number of seeds can be given as an argument, and
+   * defaults to 15000.
+   *
+   * @param args the number of seeds
+   */
+  public static void main(String[] args) {
+    int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 15000;
+    int[][] sizes = {{1000, 1500}, {2000, 3000}, {3000, 4000}};
+
+    System.out.printf("%-11s %-8s %10s %14s %6s %10s%n", "size", "clusters", "time", "allocated",
+            "gcs", "gc time");
+
+    for (int[] size : sizes) {
+      Image img = BenchmarkUtil.randomImage(size[0], size[1], 0);
+
+      measure(size, "labels", () -> new Mosaic(img, seeds).apply());
+      measure(size, "lists", () -> listMosaic(img, seeds));
+    }
+  }
+
+  /**
+   * Time the given work, then run it once more and print the bytes it allocated and the garbage
+   * collections it caused.
+   *
+   * @param size the size of the image
+   * @param name the name of the work
+   * @param work the work to be measured
+   */
+  private static void measure(int[] size, String name, Runnable work) {
+    double time = BenchmarkUtil.time(work, 3);
+
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    long bytes = threads.getThreadAllocatedBytes(thread);
+    long[] gcs = collections();
+    work.run();
+    bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+    long[] after = collections();
+
+    System.out.printf("%-11s %-8s %8.2fms %12.1fMB %6d %8dms%n", size[0] + "x" + size[1], name,
+            time, bytes / 1e6, after[0] - gcs[0], after[1] - gcs[1]);
+  }
+
+  /**
+   * Return the number of garbage collections so far, and their total time in milliseconds.
+   *
+   * @return the number of garbage collections and their time
+   */
+  private static long[] collections() {
+    long[] total = new long[2];
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total[0] += Math.max(0, gc.getCollectionCount());
+      total[1] += Math.max(0, gc.getCollectionTime());
+    }
+    return total;
+  }
+
+  /**
+   * Create a mosaic of the given image with the given number of random seeds, keeping the
+   * coordinates of the pixels of every cluster in a list, as the mosaic operation used to.
+   *
+   * @param img   the image
+   * @param seeds the number of seeds
+   * @return the mosaic image
+   */
+  private static Image listMosaic(Image img, int seeds) {
+    int h = img.getHeight();
+    int w = img.getWidth();
+    int[] seedRows = new int[seeds];
+    int[] seedCols = new int[seeds];
+    for (int s = 0; s < seeds; s++) {
+      seedRows[s] = (int) (Math.random() * h);
+      seedCols[s] = (int) (Math.random() * w);
+    }
+
+    List<List<int[]>> clusters = new ArrayList<>();
+    for (int s = 0; s < seeds; s++) {
+      clusters.add(new ArrayList<>());
+    }
+    int[] labels = Mosaic.label(h, w, seedRows, seedCols, Mosaic.getMode());
+    for (int i = 0; i < h; i++) {
+      for (int j = 0; j < w; j++) {
+        clusters.get(labels[i * w + j]).add(new int[]{i, j});
+      }
+    }
+
+    int[] pixels = img.pixelArray();
+    int[] output = new int[h * w];
+    for (List<int[]> cluster : clusters) {
+      double sumR = 0;
+      double sumG = 0;
+      double sumB = 0;
+      for (int[] point : cluster) {
+        int p = pixels[point[0] * w + point[1]];
+        sumR += Image.red(p);
+        sumG += Image.green(p);
+        sumB += Image.blue(p);
+      }
+      int n = cluster.size();
+      int color = Image.pack((int) Math.round(sumR / n), (int) Math.round(sumG / n),
+              (int) Math.round(sumB / n));
+      for (int[] point : cluster) {
+        output[point[0] * w + point[1]] = color;
+      }
+    }
+
+    return Image.wrap(h, w, output);
+  }
+}
@@ -0,0 +1,62 @@
+package imageprocessing.operation;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of the parallel mosaic operation. It times the mosaic in both
+ * modes across numbers of threads and image sizes, and checks that every number of threads gives
+ * the same result as one thread.
+ */
+public class MosaicScalingBenchmark {
+
+  /**
+   * Run the benchmark and print the results in milliseconds, with the speedup over one thread. The
+   * numbers of threads to try can be given as arguments, and default to 1, 2, 4, 8 and 16.
+   *
+   * @param args the numbers of threads to try
+   */
+  public static void main(String[] args) {
+    int[] threads = {1, 2, 4, 8, 16};
+    if (args.length > 0) {
+      threads = new int[args.length];
+      for (int k = 0; k < args.length; k++) {
+        threads[k] = Integer.parseInt(args[k]);
+      }
+    }
+    int[][] sizes = {{1000, 1500}, {2000, 3000}, {4000, 6000}};
+    int seeds = 15000;
+
+    System.out.printf("%-11s %8s %14s %8s %20s %8s%n", "size", "threads", "nearest_seed",
+            "speedup", "distance_transform", "speedup");
+
+    for (int[] size : sizes) {
+      Image img = BenchmarkUtil.randomImage(size[0], size[1], 0);
+      ParallelExecutor.setThreads(1);
+      Image expected = new Mosaic(img, seeds, 0).apply();
+      double[] serial = new double[2];
+
+      for (int n : threads) {
+        ParallelExecutor.setThreads(n);
+        double[] time = new double[2];
+
+        for (MosaicMode mode : MosaicMode.values()) {
+          if (!new Mosaic(img, seeds, 0, mode).apply().getPixels().equals(expected.getPixels())) {
+            throw new IllegalStateException("Result differs with " + n + " threads");
+          }
+
+          time[mode.ordinal()] = BenchmarkUtil.time(() -> new Mosaic(img, seeds, 0, mode).apply(),
+                  3);
+          if (n == 1) {
+            serial[mode.ordinal()] = time[mode.ordinal()];
+          }
+        }
+
+        System.out.printf("%-11s %8d %14.2f %8s %20.2f %8s%n", size[0] + "x" + size[1], n,
+                time[0], serial[0] > 0 ? String.format("%.2f", serial[0] / time[0]) : "-",
+                time[1], serial[1] > 0 ? String.format("%.2f", serial[1] / time[1]) : "-");
+      }
+    }
+
+    ParallelExecutor.setThreads(1);
+  }
+}
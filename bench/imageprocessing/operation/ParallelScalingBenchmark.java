@@ -0,0 +1,52 @@
+package imageprocessing.operation;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of the parallel execution mode of the image filtering and color
+ * transformation operations. It times blur, sharpen and sepia tone across numbers of threads and
+ * image sizes, and checks that every number of threads gives the same result as one thread.
+ */
+public class ParallelScalingBenchmark {
+
+  /**
+   * Run the benchmark and print the results in milliseconds. The numbers of threads to try can be
+   * given as arguments, and default to 1, 2, 4, 8 and 16.
+   *
+   * @param args the numbers of threads to try
+   */
+  public static void main(String[] args) {
+    int[] threads = {1, 2, 4, 8, 16};
+    if (args.length > 0) {
+      threads = new int[args.length];
+      for (int k = 0; k < args.length; k++) {
+        threads[k] = Integer.parseInt(args[k]);
+      }
+    }
+    int[][] sizes = {{500, 500}, {1000, 1500}, {2000, 3000}};
+
+    System.out.printf("%-11s %8s %10s %10s %10s%n", "size", "threads", "blur", "sharpen",
+            "sepiatone");
+
+    for (int[] size : sizes) {
+      Image img = BenchmarkUtil.randomImage(size[0], size[1], 0);
+      ParallelExecutor.setThreads(1);
+      Image expected = new ImageSharpening(img).apply();
+
+      for (int n : threads) {
+        ParallelExecutor.setThreads(n);
+
+        if (!new ImageSharpening(img).apply().getPixels().equals(expected.getPixels())) {
+          throw new IllegalStateException("Result differs with " + n + " threads");
+        }
+
+        double blur = BenchmarkUtil.time(() -> new ImageBlurring(img).apply(), 5);
+        double sharpen = BenchmarkUtil.time(() -> new ImageSharpening(img).apply(), 5);
+        double sepia = BenchmarkUtil.time(() -> new SepiaTone(img).apply(), 5);
+
+        System.out.printf("%-11s %8d %10.2f %10.2f %10.2f%n", size[0] + "x" + size[1], n, blur,
+                sharpen, sepia);
+      }
+    }
+  }
+}
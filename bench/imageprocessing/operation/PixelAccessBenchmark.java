@@ -0,0 +1,54 @@
+package imageprocessing.operation;
+
+import java.nio.IntBuffer;
+
+import imageprocessing.BenchmarkUtil;
+
+/**
+ * This class contains a benchmark of reading the pixels of an {@link Image}. It compares the deep
+ * copy made by {@link Image#getRGB()}, which every operation used to pay before doing any work,
+ * with the read-only view returned by {@link Image#getPixels()}, and puts both next to the time of
+ * the operations themselves.
+ */
+public class PixelAccessBenchmark {
+
+  /**
+   * Run the benchmark and print the results in milliseconds.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    int[][] sizes = {{500, 500}, {1000, 1500}, {2000, 3000}};
+
+    System.out.printf("%-11s %10s %10s %10s %10s %10s %10s%n", "size", "getRGB", "getPixels",
+            "blur", "sharpen", "greyscale", "dither");
+
+    for (int[] size : sizes) {
+      Image img = BenchmarkUtil.randomImage(size[0], size[1], 0);
+
+      double copy = BenchmarkUtil.time(img::getRGB, 5);
+      double view = BenchmarkUtil.time(() -> sum(img.getPixels()), 5);
+      double blur = BenchmarkUtil.time(() -> new ImageBlurring(img).apply(), 5);
+      double sharpen = BenchmarkUtil.time(() -> new ImageSharpening(img).apply(), 5);
+      double greyscale = BenchmarkUtil.time(() -> new Greyscale(img).apply(), 5);
+      double dither = BenchmarkUtil.time(() -> new Dither(img).apply(), 5);
+
+      System.out.printf("%-11s %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+              size[0] + "x" + size[1], copy, view, blur, sharpen, greyscale, dither);
+    }
+  }
+
+  /**
+   * Read every pixel from the given view, so that the view is actually used by the benchmark.
+   *
+   * @param pixels the view of the pixels
+   * @return the sum of the pixels
+   */
+  private static long sum(IntBuffer pixels) {
+    long sum = 0;
+    while (pixels.hasRemaining()) {
+      sum += pixels.get();
+    }
+    return sum;
+  }
+}
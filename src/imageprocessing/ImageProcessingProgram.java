@@ -2,12 +2,20 @@ package imageprocessing;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import imageprocessing.controller.GUIController;
 import imageprocessing.controller.ImageProcessingController;
 import imageprocessing.controller.ScriptController;
 import imageprocessing.model.ImageProcessingModel;
 import imageprocessing.model.ImgProcModel;
+import imageprocessing.operation.FixedPoint;
+import imageprocessing.operation.Mosaic;
+import imageprocessing.operation.MosaicMode;
+import imageprocessing.operation.ParallelExecutor;
 import imageprocessing.view.ImageProcessingView;
 import imageprocessing.view.JFrameView;
 
@@ -18,6 +26,10 @@ import imageprocessing.view.JFrameView;
  * France, Greece and Switzerland of a user-specified size, but of the prescribed proportions.
  */
 public class ImageProcessingProgram {
+  private static boolean fastFusion = false;
+  private static long historyBudget = -1;
+  private static Path scratchDirectory = null;
+  private static int replayCost = ImgProcModel.DEFAULT_REPLAY_COST;
 
   /**
    * The entry point of the program. It creates a model, view, and controller for the program, and
@@ -26,19 +38,34 @@ public class ImageProcessingProgram {
    * 1. "java -jar Program.jar -script path-of-script-file": when invoked in this manner the program
    * should open the script file, execute it and then shut down. 2. "java -jar Program.jar
    * -interactive": when invoked in this manner the program should open the graphical user
-   * interface. The program displays an error message suitably and quits if the provided input is
-   * invalid or any error occurs.
+   * interface. Either input may be followed by the options "-threads n", which lets the image
+   * operations run on n threads, "-fixedpoint", which lets the image filtering and color
+   * transformation operations use fixed-point integer arithmetic, "-fastfusion", which lets
+   * consecutive color transformations be fused into one matrix, "-mosaic mode", which sets the way
+   * the mosaic operation finds the seed of every pixel, "-history n", which bounds the memory of
+   * the undo history to n megabytes (by default, a quarter of the memory of the program in the
+   * interactive mode, and 0 in the script mode, which cannot undo), "-scratch dir", which lets the
+   * undo history spill its older images to a scratch file in the directory dir, and "-replay n",
+   * which lets the undo history drop the images that take less than n milliseconds per megabyte to
+   * compute again. The program displays an error message suitably and quits if the provided input
+   * is invalid or any error occurs.
    */
   public static void main(String[] args) {
-    ImageProcessingModel model = new ImgProcModel();
+    ImageProcessingModel model;
     ImageProcessingController controller;
 
-    if (args.length == 1 && args[0].equals("-interactive")) {
+    if (args.length >= 1 && args[0].equals("-interactive") && setOptions(args, 1)) {
+      model = new ImgProcModel(fastFusion,
+              historyBudget < 0 ? ImgProcModel.DEFAULT_HISTORY_BUDGET : historyBudget,
+              scratchDirectory, replayCost);
       ImageProcessingView view = new JFrameView();
       controller = new GUIController(model, view);
       controller.run();
-    } else if (args.length == 2 && args[0].equals("-script")) {
+    } else if (args.length >= 2 && args[0].equals("-script") && setOptions(args, 2)) {
       try {
+        // a script cannot undo, so every image is dropped once it is replaced by default
+        model = new ImgProcModel(fastFusion, Math.max(historyBudget, 0), scratchDirectory,
+                replayCost);
         controller = new ScriptController(new FileReader(args[1]), model);
         controller.run();
       } catch (FileNotFoundException | IllegalStateException e) {
@@ -49,8 +76,94 @@ public class ImageProcessingProgram {
       System.err.println("Invalid command-line argument");
       System.err.println("Valid argument:\n"
               + "-script path-of-script-file: execute a script file\n"
-              + "-interactive: open the GUI");
+              + "-interactive: open the GUI\n"
+              + "Valid options (after the argument):\n"
+              + "-threads n: run the image operations on n threads\n"
+              + "-fixedpoint: filter and transform colors with fixed-point integer arithmetic\n"
+              + "-fastfusion: fuse consecutive color transformations into one matrix\n"
+              + "-mosaic nearest_seed OR distance_transform: find the seed of every mosaic pixel "
+              + "by searching the nearest seed, or by a distance transform\n"
+              + "-history n: keep at most n megabytes of images for undo and redo (0 for none)\n"
+              + "-scratch dir: spill the older images for undo and redo to a file in dir\n"
+              + "-replay n: compute again the images for undo and redo that take less than n "
+              + "milliseconds per megabyte");
       System.exit(1);
     }
   }
+
+  /**
+   * Apply the options in the given command-line arguments from the given position on, and return
+   * true if they are all valid, false otherwise. The valid options are "-threads n", which sets the
+   * number of threads the image operations may use to the positive integer n, "-fixedpoint", which
+   * turns on the fixed-point integer arithmetic mode, "-fastfusion", which turns on the fast
+   * fusion of consecutive color transformations in the model, "-mosaic mode", which sets the
+   * mosaic mode to "nearest_seed" or "distance_transform", "-history n", which sets the budget of
+   * the undo history of the model to the non-negative integer n megabytes (0 keeps no history),
+   * "-scratch dir", which sets the directory of the scratch file of the undo history to the
+   * existing directory dir, and "-replay n", which sets the replay cost of the undo history to the
+   * non-negative integer n milliseconds per megabyte.
+   *
+   * @param args the command-line arguments
+   * @param from the position of the first option in the arguments
+   * @return true if the options are all valid, false otherwise
+   */
+  private static boolean setOptions(String[] args, int from) {
+    for (int k = from; k < args.length; k++) {
+      if (args[k].equals("-threads") && k + 1 < args.length) {
+        try {
+          ParallelExecutor.setThreads(Integer.parseInt(args[++k]));
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      } else if (args[k].equals("-fixedpoint")) {
+        FixedPoint.setEnabled(true);
+      } else if (args[k].equals("-fastfusion")) {
+        fastFusion = true;
+      } else if (args[k].equals("-mosaic") && k + 1 < args.length) {
+        String name = args[++k];
+        MosaicMode mode = null;
+        for (MosaicMode m : MosaicMode.values()) {
+          if (m.toString().toLowerCase().equals(name)) {
+            mode = m;
+          }
+        }
+        if (mode == null) {
+          return false;
+        }
+        Mosaic.setMode(mode);
+      } else if (args[k].equals("-history") && k + 1 < args.length) {
+        long megabytes;
+        try {
+          megabytes = Long.parseLong(args[++k]);
+        } catch (NumberFormatException e) {
+          return false;
+        }
+        if (megabytes < 0 || megabytes > Long.MAX_VALUE >> 20) {
+          return false;
+        }
+        historyBudget = megabytes << 20;
+      } else if (args[k].equals("-scratch") && k + 1 < args.length) {
+        try {
+          scratchDirectory = Paths.get(args[++k]);
+        } catch (InvalidPathException e) {
+          return false;
+        }
+        if (!Files.isDirectory(scratchDirectory)) {
+          return false;
+        }
+      } else if (args[k].equals("-replay") && k + 1 < args.length) {
+        try {
+          replayCost = Integer.parseInt(args[++k]);
+        } catch (NumberFormatException e) {
+          return false;
+        }
+        if (replayCost < 0) {
+          return false;
+        }
+      } else {
+        return false;
+      }
+    }
+    return true;
+  }
 }
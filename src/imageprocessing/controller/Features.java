@@ -5,6 +5,7 @@ import java.io.IOException;
 import imageprocessing.model.CountryAlphaCode;
 import imageprocessing.model.ProcessingOperation;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.ThresholdMatrix;
 
 /**
  * This interface represents a set of features that the image processing program offers. Each
@@ -34,6 +35,14 @@ public interface Features {
    */
   void undo() throws IllegalStateException;
 
+  /**
+   * Return a report of the memory the images kept for redo and undo take, and of the memory saved
+   * by compressing them during this session.
+   *
+   * @return a report of the memory of the images kept for redo and undo
+   */
+  String historyReport();
+
   /**
    * Load an image with the given path of the file.
    *
@@ -78,6 +87,14 @@ public interface Features {
    */
   void mosaic(int numSeeds) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Dither the image with the given threshold matrix (ordered dithering).
+   *
+   * @param matrix the threshold matrix of the ordered dithering
+   * @throws IllegalStateException if there is no image loaded to be processed
+   */
+  void ditherOrdered(ThresholdMatrix matrix) throws IllegalStateException;
+
   /**
    * Generate a checker board image of the given size.
    *
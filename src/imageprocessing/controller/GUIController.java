@@ -7,8 +7,8 @@ import java.io.StringReader;
 import imageprocessing.model.CountryAlphaCode;
 import imageprocessing.model.ImageProcessingModel;
 import imageprocessing.model.ProcessingOperation;
-import imageprocessing.operation.Image;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.ThresholdMatrix;
 import imageprocessing.util.ImageUtil;
 import imageprocessing.view.ImageProcessingView;
 
@@ -59,16 +59,20 @@ public class GUIController implements ImageProcessingController, Features {
     displayResult();
   }
 
+  @Override
+  public String historyReport() {
+    return model.getHistoryReport();
+  }
+
   @Override
   public void load(String filename) throws IOException {
-    model.setImage(new Image(ImageUtil.readImage(filename)));
+    model.setImage(ImageUtil.read(filename));
     view.display(0, filename);
   }
 
   @Override
   public void save(String filename) throws IOException, IllegalStateException {
-    ImageUtil.writeImage(model.getImageRGB(), model.getImageWidth(), model.getImageHeight(),
-            filename);
+    ImageUtil.write(model.getSource(), filename);
   }
 
   @Override
@@ -100,6 +104,12 @@ public class GUIController implements ImageProcessingController, Features {
     displayResult();
   }
 
+  @Override
+  public void ditherOrdered(ThresholdMatrix matrix) throws IllegalStateException {
+    model.ditherOrdered(matrix);
+    displayResult();
+  }
+
   @Override
   public void checkerBoard(int size) throws IllegalArgumentException {
     model.generateCheckerBoard(size);
@@ -9,8 +9,8 @@ import java.util.regex.MatchResult;
 import imageprocessing.model.CountryAlphaCode;
 import imageprocessing.model.ImageProcessingModel;
 import imageprocessing.model.ProcessingOperation;
-import imageprocessing.operation.Image;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.ThresholdMatrix;
 import imageprocessing.util.ImageUtil;
 
 /**
@@ -18,8 +18,8 @@ import imageprocessing.util.ImageUtil;
  * methods mandated by the {@link ImageProcessingController} interface, and runs by processing
  * command script. It contains the command script read from the user input, the model for the
  * program, the command supported by the program, and the maps from command string to method
- * argument. The supported features are: blur, sharpen, sepia, greyscale, mosaics, dithering, image
- * generation and the ability to load and save images.
+ * argument. The supported features are: blur, sharpen, sepia, greyscale, mosaics, dithering,
+ * ordered dithering, image generation and the ability to load and save images.
  */
 public class ScriptController implements ImageProcessingController {
   private final Readable script;
@@ -27,6 +27,7 @@ public class ScriptController implements ImageProcessingController {
   private final String[] validCommand;
   private final Map<String, CountryAlphaCode> countryCodeMap;
   private final Map<String, ProcessingOperation> procOperationMap;
+  private final Map<String, ThresholdMatrix> thresholdMatrixMap;
 
   /**
    * Construct a image processing controller, with the given command script and the model for the
@@ -41,6 +42,7 @@ public class ScriptController implements ImageProcessingController {
     this.validCommand = setValidCommand();
     this.countryCodeMap = setCountryCodeMap();
     this.procOperationMap = setProcOperationMap();
+    this.thresholdMatrixMap = setThresholdMatrixMap();
   }
 
   @Override
@@ -108,11 +110,10 @@ public class ScriptController implements ImageProcessingController {
 
     switch (cmd) {
       case "load":
-        model.setImage(new Image(ImageUtil.readImage(cmdToken.group(4))));
+        model.setImage(ImageUtil.read(cmdToken.group(4)));
         break;
       case "save":
-        ImageUtil.writeImage(model.getImageRGB(), model.getImageWidth(), model.getImageHeight(),
-                cmdToken.group(4));
+        ImageUtil.write(model.getSource(), cmdToken.group(4));
         break;
       case "generate":
         String pattern = cmdToken.group(2);
@@ -133,7 +134,16 @@ public class ScriptController implements ImageProcessingController {
         }
         break;
       case "mosaic":
-        model.mosaic(Integer.parseInt(cmdToken.group(2)));
+        if (cmdToken.group(4) == null) {
+          model.mosaic(Integer.parseInt(cmdToken.group(2)));
+        } else {
+          model.mosaic(Integer.parseInt(cmdToken.group(2)), Long.parseLong(cmdToken.group(4)));
+        }
+        break;
+      case "dither_ordered":
+        // the 8x8 Bayer matrix unless a matrix is given
+        model.ditherOrdered(cmdToken.group(3) == null
+                ? ThresholdMatrix.BAYER8 : thresholdMatrixMap.get(cmdToken.group(3)));
         break;
       default:
         model.process(procOperationMap.get(cmd));
@@ -167,9 +177,10 @@ public class ScriptController implements ImageProcessingController {
     String checkerBoard = "^\\s*(generate)\\s+(checkerboard)\\s+(\\d+)\\s*$";
     String flag = "^\\s*(generate)\\s+(flag)\\s+(\\d+)\\s+(\\d+)\\s+(CH|FR|GR)\\s*$";
     String rainbow = "^\\s*(generate)\\s+(rainbow)\\s+(\\d+)\\s+(\\d+)\\s+(v|h)\\s*$";
-    String mosaic = "^\\s*(mosaic)\\s+(\\d+)\\s*$";
+    String mosaic = "^\\s*(mosaic)\\s+(\\d+)(\\s+(-?\\d+))?\\s*$";
+    String ordered = "^\\s*(dither_ordered)(\\s+(bayer2|bayer4|bayer8|bluenoise))?\\s*$";
 
-    return new String[]{saveOrLoad, processing, checkerBoard, flag, rainbow, mosaic};
+    return new String[]{saveOrLoad, processing, checkerBoard, flag, rainbow, mosaic, ordered};
   }
 
   /**
@@ -188,6 +199,22 @@ public class ScriptController implements ImageProcessingController {
     return countryCodeMap;
   }
 
+  /**
+   * Set the map from threshold matrix string to its {@link ThresholdMatrix} enum counterpart. Note
+   * that the map must include all supported threshold matrices.
+   *
+   * @return the map from threshold matrix string to its enum counterpart
+   */
+  private Map<String, ThresholdMatrix> setThresholdMatrixMap() {
+    Map<String, ThresholdMatrix> matrixMap = new HashMap<>();
+
+    for (ThresholdMatrix matrix : ThresholdMatrix.values()) {
+      matrixMap.put(matrix.toString().toLowerCase(), matrix);
+    }
+
+    return matrixMap;
+  }
+
   /**
    * Set the map from image processing operation string to its {@link ProcessingOperation} enum
    * counterpart. Note that the map must include all supported processing operations.
@@ -0,0 +1,410 @@
+package imageprocessing.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import imageprocessing.operation.Image;
+import imageprocessing.operation.PixelSource;
+
+/**
+ * This class represents the history of the states of a model, for the undo and redo operations,
+ * bounded by a budget of bytes. The memory of the history is the memory of the distinct images and
+ * snapshots its states hold (an image the states share, e.g. the image a run of color
+ * transformations starts from, is counted once), computed from the size of every image and the
+ * compressed size of every snapshot. Whenever it exceeds the budget, the oldest states are dropped
+ * first, then the undone states farthest from the current state, but never the current state: if
+ * even the current state does not fit, it is the only state left, and there is nothing to undo or
+ * redo. Recording a state after undoing drops the undone states. A budget of 0 keeps no history at
+ * all: recording a state drops every other state at once, without compressing it, so that the
+ * history holds the current image alone and there is nothing to undo or redo (e.g. for a script).
+ *
+ * <p>The images of the states other than the current state are not kept as they are: each of them
+ * is compressed into a {@link Snapshot} (sharing the tiles it has in common with the snapshot of
+ * the state before it) the first time its state stops being the current state, and is dropped, to
+ * be decompressed on demand when its state is the current state again. A generated image is
+ * dropped without a snapshot, as it is generated again from its parameters, and an image that a
+ * run of color transformations starts from is kept as it is, as the run holds it anyway. The
+ * history keeps count of the snapshots made during the session, for {@link #report()}.
+ *
+ * <p>An image computed by a deterministic operation (its step) from the image before it may be
+ * dropped without a snapshot, as it can be computed again by replaying the steps from the nearest
+ * state before it whose image is held or compressed (a checkpoint), and so may an image a run of
+ * color transformations computed. Whether an image is kept as a checkpoint is decided from the
+ * time its replay would take, as measured when its steps first ran, against the size its snapshot
+ * would take, estimated from the snapshots made so far: it is dropped if replaying it takes less
+ * than the given replay cost in milliseconds per megabyte of its snapshot. The interval between
+ * checkpoints thus adapts to the operations: a run of fast operations is replayed, while the image
+ * after a slow one, or an image that compresses well, is kept. A replay cost of 0 keeps every
+ * image. The oldest state is always a checkpoint: the states that can no longer be replayed once
+ * it is dropped are dropped with it.
+ *
+ * <p>With a {@link ScratchFile}, the history spills snapshots to it rather than dropping states
+ * when it exceeds its budget, in the same order (the oldest first, then the undone states farthest
+ * from the current state), so that only the recent snapshots are kept on the heap. The budget then
+ * bounds the memory of the history on the heap, and states are only dropped if it is still
+ * exceeded with every snapshot spilled. If the scratch file cannot be written, the history drops
+ * states instead from then on.
+ */
+class History {
+  /**
+   * The bytes an image takes besides its pixels (the headers of the image and its array).
+   */
+  static final long IMAGE_OVERHEAD = 48;
+
+  private final long budget;
+  private final double replayCost;
+  private ScratchFile scratch;
+  private final List<State> states;
+  private int index;
+  private int snapshots;
+  private long snapshotRawBytes;
+  private long snapshotBytes;
+  private int replays;
+
+  /**
+   * Construct an empty history with the given budget of bytes, which drops states when it is
+   * exceeded.
+   *
+   * @param budget the most bytes the images of the history may take, or 0 to keep no history
+   * @throws IllegalArgumentException if the given budget is negative
+   */
+  History(long budget) throws IllegalArgumentException {
+    this(budget, null, 0);
+  }
+
+  /**
+   * Construct an empty history with the given budget of bytes, which spills snapshots to the given
+   * scratch file when it is exceeded, and drops the images that take less than the given replay
+   * cost to replay.
+   *
+   * @param budget     the most bytes the images of the history may take on the heap, or 0 to
+   *                   keep no history
+   * @param scratch    the scratch file to spill snapshots to, or null to drop states instead
+   * @param replayCost the most milliseconds of replay per megabyte of snapshot for which an image
+   *                   is dropped to be replayed rather than kept, or 0 to keep every image
+   * @throws IllegalArgumentException if the given budget or replay cost is negative
+   */
+  History(long budget, ScratchFile scratch, double replayCost) throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("The history budget cannot be negative");
+    }
+    if (!(replayCost >= 0)) {
+      throw new IllegalArgumentException("The replay cost cannot be negative");
+    }
+
+    this.budget = budget;
+    this.replayCost = replayCost;
+    this.scratch = scratch;
+    this.states = new ArrayList<>();
+    this.index = -1;
+  }
+
+  /**
+   * Return true if there is no state in this history, false otherwise.
+   *
+   * @return true if there is no state in this history, false otherwise
+   */
+  boolean isEmpty() {
+    return states.isEmpty();
+  }
+
+  /**
+   * Return the current state of this history.
+   *
+   * @return the current state of this history
+   * @throws IllegalStateException if there is no state in this history
+   */
+  State current() throws IllegalStateException {
+    if (states.isEmpty()) {
+      throw new IllegalStateException("No image");
+    }
+
+    return states.get(index);
+  }
+
+  /**
+   * Return the states from the nearest state up to the current state whose image is held or can be
+   * computed on its own, to the current state, so that the image of the current state is computed
+   * by replaying the steps of the states after the first one on the image of the first one.
+   *
+   * @return the states whose steps compute the image of the current state, from the first one
+   * @throws IllegalStateException if there is no state in this history
+   */
+  List<State> chain() throws IllegalStateException {
+    if (states.isEmpty()) {
+      throw new IllegalStateException("No image");
+    }
+
+    int k = index;
+    while (k > 0 && !states.get(k).isHeld()) {
+      k--;
+    }
+    return new ArrayList<>(states.subList(k, index + 1));
+  }
+
+  /**
+   * Add the given state after the current state, dropping the undone states after the current
+   * state, and make it the current state. Older states are then dropped if the history exceeds its
+   * budget, or at once if the budget is 0.
+   *
+   * @param state the state to be added
+   */
+  void record(State state) {
+    if (budget == 0) {
+      states.clear();
+      index = -1;
+    }
+
+    states.subList(index + 1, states.size()).clear();
+    states.add(state);
+    index++;
+    trim();
+  }
+
+  /**
+   * Make the state before the current state the current state.
+   *
+   * @throws IllegalStateException if there is no state before the current state
+   */
+  void undo() throws IllegalStateException {
+    if (index < 1) {
+      throw new IllegalStateException("No operation to undo");
+    }
+
+    index--;
+    compact();
+  }
+
+  /**
+   * Make the state after the current state the current state.
+   *
+   * @throws IllegalStateException if there is no state after the current state
+   */
+  void redo() throws IllegalStateException {
+    if (index >= states.size() - 1) {
+      throw new IllegalStateException("No operation to redo");
+    }
+
+    index++;
+    compact();
+  }
+
+  /**
+   * Compress or drop the images of the states other than the current state, then spill snapshots,
+   * or drop states, until this history is within its budget, the oldest states first, then the
+   * undone states farthest from the current state. This is to be called after the images of its
+   * states change, e.g. when the image of a pending state is computed.
+   */
+  void trim() {
+    compact();
+
+    long total = bytes();
+    for (int k = 0; k < states.size() && total > budget && scratch != null; k++) {
+      // the states before the current state, then after it from the last one, then itself
+      int n = k < index ? k : (k < states.size() - 1 ? states.size() - 1 - (k - index) : index);
+      Snapshot snapshot = states.get(n).snapshot;
+      if (snapshot != null && !snapshot.isSpilled()) {
+        try {
+          total -= snapshot.spill(scratch);
+        } catch (IOException e) {
+          scratch = null;
+        }
+      }
+    }
+
+    // the states that cannot be replayed once the oldest state is dropped go with it
+    while (index > 0 && (bytes() > budget || !states.get(0).isHeld())) {
+      states.remove(0);
+      index--;
+    }
+    while (states.size() - 1 > index && bytes() > budget) {
+      states.remove(states.size() - 1);
+    }
+  }
+
+  /**
+   * Return the bytes the distinct images and snapshots of the states of this history take on the
+   * heap (a tile shared by several snapshots is counted once, and a spilled tile is not counted).
+   *
+   * @return the bytes the images and snapshots of this history take
+   */
+  long bytes() {
+    Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+    long total = 0;
+
+    for (State state : states) {
+      if (state.image != null && counted.add(state.image)) {
+        total += bytesOf(state.image);
+      }
+      if (state.base != null && counted.add(state.base)) {
+        total += bytesOf(state.base);
+      }
+      if (state.snapshot != null) {
+        total += state.snapshot.bytes(counted);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Return the bytes the distinct images of the states of this history would take if every state
+   * held its image uncompressed. The size of an image that is not held is that of its snapshot, its
+   * source or the image its run starts from, or else that of the image of the state before it, as
+   * the steps replayed keep the size of the image.
+   *
+   * @return the bytes the images of this history would take uncompressed
+   */
+  long rawBytes() {
+    Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+    long total = 0;
+    long previous = 0;
+
+    for (State state : states) {
+      if (state.base != null && counted.add(state.base)) {
+        total += bytesOf(state.base);
+      }
+
+      PixelSource sized = state.image != null ? state.image : state.snapshot;
+      if (sized == null) {
+        sized = state.source != null ? state.source : state.base;
+      }
+      if (sized != null) {
+        previous = bytesOf(sized);
+      }
+      if (state.image == null || counted.add(state.image)) {
+        total += previous;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Return a report of the memory this history takes and saves by compressing its images, now and
+   * over the session so far.
+   *
+   * @return a report of the memory of this history
+   */
+  String report() {
+    long now = bytes();
+    long raw = rawBytes();
+
+    return String.format("History: %d states in %s, %s saved of %s uncompressed%n"
+                    + "Session: %d snapshots of %s compressed to %s, %s saved, %s spilled to disk, "
+                    + "%d images dropped to be replayed",
+            states.size(), megabytes(now), megabytes(raw - now), megabytes(raw), snapshots,
+            megabytes(snapshotRawBytes), megabytes(snapshotBytes),
+            megabytes(snapshotRawBytes - snapshotBytes),
+            megabytes(scratch == null ? 0 : scratch.bytes()), replays);
+  }
+
+  /**
+   * Return the number of states in this history.
+   *
+   * @return the number of states in this history
+   */
+  int size() {
+    return states.size();
+  }
+
+  /**
+   * Return the bytes the given image takes uncompressed, computed from its size.
+   *
+   * @param image the image
+   * @return the bytes the image takes uncompressed
+   */
+  static long bytesOf(PixelSource image) {
+    return 4L * image.getHeight() * image.getWidth() + IMAGE_OVERHEAD;
+  }
+
+  /**
+   * Compress the images of the states other than the current state into snapshots and drop them,
+   * but for the generated images and the images worth replaying, which are dropped without a
+   * snapshot, and the images a run of color transformations starts from, which are kept, as is
+   * the image before the current state if the current state is to be replayed from it. A snapshot
+   * shares the tiles it has in common with the latest snapshot of the states before it.
+   */
+  private void compact() {
+    Snapshot previous = null;
+    boolean replaying = index >= 0 && !states.get(index).isHeld();
+
+    for (int k = 0; k < states.size(); k++) {
+      State state = states.get(k);
+
+      if (k != index && state.image != null && !isBase(state.image)
+              && !(replaying && k == index - 1)) {
+        if (state.snapshot == null && state.source == null) {
+          if (isWorthReplaying(k)) {
+            replays++;
+          } else {
+            state.snapshot = new Snapshot(state.image, previous);
+            snapshots++;
+            snapshotRawBytes += bytesOf(state.image);
+            snapshotBytes += state.snapshot.storedBytes();
+          }
+        }
+        state.image = null;
+      }
+
+      if (state.snapshot != null) {
+        previous = state.snapshot;
+      }
+    }
+  }
+
+  /**
+   * Return true if the image of the given state may be dropped without a snapshot, to be computed
+   * again by replaying, false otherwise. It may if it is the image of a run of color
+   * transformations, or computed by a step with a state before it, and replaying the steps from
+   * the nearest state before it whose image is held takes less than the replay cost per megabyte
+   * of the estimated size of its snapshot.
+   *
+   * @param k the index of the state
+   * @return true if the image of the state is worth replaying rather than keeping
+   */
+  private boolean isWorthReplaying(int k) {
+    State state = states.get(k);
+    if (replayCost == 0 || (state.base == null && (state.step == null || k == 0))) {
+      return false;
+    }
+
+    long nanos = state.cost;
+    for (int j = k - 1; state.step != null && j >= 0 && !states.get(j).isHeld(); j--) {
+      nanos += states.get(j).cost;
+    }
+
+    // the snapshot is estimated to compress as well as the snapshots so far (half by default)
+    double ratio = snapshots == 0 ? 0.5 : (double) snapshotBytes / snapshotRawBytes;
+    double megabytes = bytesOf(state.image) * ratio / (1024.0 * 1024.0);
+    return nanos / 1e6 < replayCost * megabytes;
+  }
+
+  /**
+   * Return true if the given image is the image a run of color transformations of this history
+   * starts from, false otherwise.
+   *
+   * @param image the image
+   * @return true if a run of this history starts from the given image, false otherwise
+   */
+  private boolean isBase(Image image) {
+    for (State state : states) {
+      if (state.base == image) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the given bytes as megabytes, for a report.
+   *
+   * @param bytes the bytes
+   * @return the bytes as megabytes with one decimal
+   */
+  private static String megabytes(long bytes) {
+    return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+  }
+}
@@ -2,6 +2,8 @@ package imageprocessing.model;
 
 import imageprocessing.operation.Image;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.PixelSource;
+import imageprocessing.operation.ThresholdMatrix;
 
 /**
  * This interface represents a model for the image processing program. It includes methods that an
@@ -19,6 +21,26 @@ public interface ImageProcessingModel {
    */
   int[][][] getImageRGB() throws IllegalStateException;
 
+  /**
+   * Return the image contained in this model. The image is either the processed image or the
+   * generated image. Since an image is immutable, it is returned without copying its pixels.
+   *
+   * @return the image contained in this model
+   * @throws IllegalStateException if there is no image contained in this model
+   */
+  Image getImage() throws IllegalStateException;
+
+  /**
+   * Return the image contained in this model as a source of its rows. A generated image that has
+   * not been needed as a whole yet is returned as its generation, whose rows are computed as they
+   * are read, and an image kept compressed for undo is returned as its compressed form, whose rows
+   * are decompressed as they are read, so that they can be saved without storing every pixel.
+   *
+   * @return the image contained in this model as a source of its rows
+   * @throws IllegalStateException if there is no image contained in this model
+   */
+  PixelSource getSource() throws IllegalStateException;
+
   /**
    * Return the height of the image contained in this model.
    *
@@ -56,6 +78,14 @@ public interface ImageProcessingModel {
    */
   void undo() throws IllegalStateException;
 
+  /**
+   * Return a report of the memory the history of images for redo and undo takes, and of the memory
+   * saved by compressing them, now and over the session so far.
+   *
+   * @return a report of the memory of the history of images
+   */
+  String getHistoryReport();
+
   /**
    * Perform the given image processing operation on the image contained in this model. The result
    * is designed to replace the image in this model.
@@ -75,6 +105,29 @@ public interface ImageProcessingModel {
    */
   void mosaic(int numSeeds) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Create a mosaic version of the image contained in this model, with the given number of seeds
+   * for the mosaic operation, at random positions drawn from the given random seed, so that the
+   * same image, number of seeds and random seed always give the same mosaic. The mosaic image is
+   * designed to replace the image in this model.
+   *
+   * @param numSeeds   the number of seeds for the mosaic operation
+   * @param randomSeed the seed of the random positions of the seeds
+   * @throws IllegalArgumentException if the given number of seeds is not positive
+   * @throws IllegalStateException    if there is no image contained in this model to be processed
+   */
+  void mosaic(int numSeeds, long randomSeed) throws IllegalArgumentException,
+          IllegalStateException;
+
+  /**
+   * Dither the image contained in this model with the given threshold matrix (ordered dithering).
+   * The dithered image is designed to replace the image in this model.
+   *
+   * @param matrix the threshold matrix of the ordered dithering
+   * @throws IllegalStateException if there is no image contained in this model to be processed
+   */
+  void ditherOrdered(ThresholdMatrix matrix) throws IllegalStateException;
+
   /**
    * Generate a checker board image of the given size, and set it to the image contained in this
    * model.
@@ -1,14 +1,22 @@
 package imageprocessing.model;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
+import imageprocessing.operation.AbstractImageGeneration;
+import imageprocessing.operation.ColorTransformation;
 import imageprocessing.operation.Dither;
+import imageprocessing.operation.FusedColorTransformation;
 import imageprocessing.operation.GenerationCheckerBoard;
 import imageprocessing.operation.GenerationFlagCH;
 import imageprocessing.operation.GenerationFlagFR;
@@ -20,34 +28,151 @@ import imageprocessing.operation.ImageBlurring;
 import imageprocessing.operation.ImageProcessing;
 import imageprocessing.operation.ImageSharpening;
 import imageprocessing.operation.Mosaic;
+import imageprocessing.operation.OrderedDither;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.PixelSource;
 import imageprocessing.operation.SepiaTone;
+import imageprocessing.operation.ThresholdMatrix;
 
 /**
  * This class represents a model for the image processing program. It offers all the methods
  * mandated by the {@link ImageProcessingModel} interface, and contains the image to be processed or
  * generated, and the maps of image processing operation and country alpha code. It also maintains a
- * record of the resulting images of every operation performed, the index of current image in the
- * record, and the remaining number of times for the redo operation, to support the redo and undo
- * features.
+ * history of the resulting images of the operations performed, to support the redo and undo
+ * features, within a budget of memory: the images other than the current image are compressed, and
+ * decompressed when they are undone or redone to, and the oldest images are dropped from the
+ * history when their size exceeds the budget (see {@link History}), or spilled to a scratch file if
+ * the model has a scratch directory. With a budget of 0, the model keeps no history at all, and
+ * each image is dropped as soon as it is replaced (e.g. when running a script, which cannot undo).
+ *
+ * <p>Consecutive color transformations (greyscale, sepia tone) are not applied one by one: they
+ * are recorded as pending on the image they start from, and applied in one fused pass (see {@link
+ * FusedColorTransformation}) when the resulting image is first needed. Every intermediate state
+ * stays in the history, and is computed from the same image with its prefix of the run if it is
+ * undone to. The fusion is exact unless the fast mode is on, in which case the matrices of a run
+ * are multiplied into one.
+ *
+ * <p>The other operations (blur, sharpen, dither, ordered dither, mosaic) are deterministic (a
+ * mosaic without a random seed is given one drawn by the model), and are recorded along with their
+ * results, so that the history may drop a result that is cheap to compute again, and replay the
+ * operations from an earlier image when it is undone to.
+ *
+ * <p>A generated image (checkerboard, flag, rainbow) is recorded as its generation, and is only
+ * generated whole when it is first needed as an image (e.g. to be processed or displayed); until
+ * then, it is saved by generating a row at a time (see {@link #getSource()}).
  */
 public class ImgProcModel implements ImageProcessingModel {
-  private int i;
-  private int canRedo;
-  private Image img;
-  private List<Image> imgRecord;
+  /**
+   * The budget of memory of the history by default, in bytes: a quarter of the memory the program
+   * may use.
+   */
+  public static final long DEFAULT_HISTORY_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+
+  /**
+   * The replay cost of the history by default, in milliseconds per megabyte: an image that takes
+   * less than this to compute again per megabyte of its compressed snapshot is dropped from the
+   * history and replayed when it is undone to.
+   */
+  public static final int DEFAULT_REPLAY_COST = 4;
+
+  /**
+   * The processing operations that are color transformations, and can be fused with each other.
+   */
+  private static final Set<ProcessingOperation> COLOR_TRANSFORMATIONS
+          = EnumSet.of(ProcessingOperation.GREYSCALE, ProcessingOperation.SEPIATONE);
+
+  private final History history;
+  private final boolean fast;
   private final Map<ProcessingOperation, Function<Image, ImageProcessing>> procOperation;
-  private final Map<CountryAlphaCode, BiFunction<Integer, Integer, ImageProcessing>> generation;
+  private final Map<CountryAlphaCode, BiFunction<Integer, Integer, AbstractImageGeneration>>
+      generation;
 
   /**
-   * Construct a image processing model, and initialize its index of current image, the remaining
-   * number of times for the redo operation, the image record and the maps for image processing and
-   * generation operations.
+   * Construct a image processing model, and initialize its history of images for the redo and undo
+   * operations, with the default budget of memory, and the maps for image processing and generation
+   * operations. Consecutive color transformations are fused exactly.
    */
   public ImgProcModel() {
-    this.i = -1;
-    this.canRedo = 0;
-    this.imgRecord = new ArrayList<>();
+    this(false);
+  }
+
+  /**
+   * Construct a image processing model, and initialize its history of images for the redo and undo
+   * operations, with the default budget of memory, and the maps for image processing and generation
+   * operations, with the given fusion mode for consecutive color transformations.
+   *
+   * @param fast true to multiply the matrices of consecutive color transformations into one, which
+   *             may change the result, false to fuse them exactly
+   */
+  public ImgProcModel(boolean fast) {
+    this(fast, DEFAULT_HISTORY_BUDGET);
+  }
+
+  /**
+   * Construct a image processing model, and initialize its history of images for the redo and undo
+   * operations, with the given budget of memory, and the maps for image processing and generation
+   * operations, with the given fusion mode for consecutive color transformations. The oldest images
+   * are dropped from the history when it takes more memory than the budget, so that they can no
+   * longer be undone to.
+   *
+   * @param fast          true to multiply the matrices of consecutive color transformations into
+   *                      one, which may change the result, false to fuse them exactly
+   * @param historyBudget the most bytes the images of the history may take, or 0 to keep no
+   *                      history, so that nothing can be undone
+   * @throws IllegalArgumentException if the given budget is negative
+   */
+  public ImgProcModel(boolean fast, long historyBudget) throws IllegalArgumentException {
+    this(fast, historyBudget, null);
+  }
+
+  /**
+   * Construct a image processing model, and initialize its history of images for the redo and undo
+   * operations, with the given budget of memory and scratch directory, and the maps for image
+   * processing and generation operations, with the given fusion mode for consecutive color
+   * transformations. When the history takes more memory than the budget, the oldest images are
+   * spilled to a scratch file in the given directory (deleted when the program exits) and read
+   * back from it when they are undone to, rather than dropped.
+   *
+   * @param fast             true to multiply the matrices of consecutive color transformations
+   *                         into one, which may change the result, false to fuse them exactly
+   * @param historyBudget    the most bytes the images of the history may take on the heap, or 0
+   *                         to keep no history, so that nothing can be undone
+   * @param scratchDirectory the directory of the scratch file, or null to drop the oldest images
+   * @throws IllegalArgumentException if the given budget is negative, or the given scratch
+   *                                  directory is not a directory
+   */
+  public ImgProcModel(boolean fast, long historyBudget, Path scratchDirectory)
+          throws IllegalArgumentException {
+    this(fast, historyBudget, scratchDirectory, DEFAULT_REPLAY_COST);
+  }
+
+  /**
+   * Construct a image processing model, and initialize its history of images for the redo and undo
+   * operations, with the given budget of memory, scratch directory and replay cost, and the maps
+   * for image processing and generation operations, with the given fusion mode for consecutive
+   * color transformations. An image computed by a deterministic operation is dropped from the
+   * history rather than compressed if computing it again from the nearest image kept before it
+   * takes less than the replay cost per megabyte of its compressed size, and is computed again when
+   * it is undone to, so that a lower cost keeps more images and undoes faster, and a higher cost
+   * keeps fewer images and undoes slower.
+   *
+   * @param fast             true to multiply the matrices of consecutive color transformations
+   *                         into one, which may change the result, false to fuse them exactly
+   * @param historyBudget    the most bytes the images of the history may take on the heap, or 0
+   *                         to keep no history, so that nothing can be undone
+   * @param scratchDirectory the directory of the scratch file, or null to drop the oldest images
+   * @param replayCost       the most milliseconds of computation per megabyte of compressed image
+   *                         for which an image is computed again rather than kept, or 0 to keep
+   *                         every image
+   * @throws IllegalArgumentException if the given budget is negative, the given scratch
+   *                                  directory is not a directory, or the given replay cost is
+   *                                  negative
+   */
+  public ImgProcModel(boolean fast, long historyBudget, Path scratchDirectory, int replayCost)
+          throws IllegalArgumentException {
+    this.history = new History(historyBudget,
+            scratchDirectory == null ? null : new ScratchFile(scratchDirectory), replayCost);
+    this.fast = fast;
     this.procOperation = setOperationMap();
     this.generation = setGenerationMap();
   }
@@ -56,76 +181,119 @@ public class ImgProcModel implements ImageProcessingModel {
   public void setImage(Image img) {
     Objects.requireNonNull(img, "Image cannot be null");
 
-    this.i++;
-    this.canRedo = 0;
-    this.img = img;
-    this.imgRecord.add(img);
+    history.record(new State(img));
   }
 
   @Override
   public void redo() throws IllegalStateException {
-    if (i == imgRecord.size() - 1 || canRedo < 1) {
-      throw new IllegalStateException("No operation to redo");
-    }
-
-    i++;
-    canRedo--;
-    img = imgRecord.get(i);
+    history.redo();
   }
 
   @Override
   public void undo() throws IllegalStateException {
-    if (i < 1) {
-      throw new IllegalStateException("No operation to undo");
+    history.undo();
+  }
+
+  @Override
+  public int[][][] getImageRGB() throws IllegalStateException {
+    return getImage().getRGB();
+  }
+
+  @Override
+  public Image getImage() throws IllegalStateException {
+    State current = history.current();
+    if (current.image == null) {
+      // replay the steps from the nearest state whose image can be computed on its own
+      List<State> chain = history.chain();
+      Image image = imageOf(chain.get(0));
+      for (State state : chain.subList(1, chain.size())) {
+        image = state.step.apply(image);
+      }
+      current.image = image;
+      history.trim();
     }
 
-    i--;
-    canRedo++;
-    img = imgRecord.get(i);
+    return current.image;
   }
 
   @Override
-  public int[][][] getImageRGB() throws IllegalStateException {
-    if (imgRecord.isEmpty()) {
-      throw new IllegalStateException("No image");
+  public PixelSource getSource() throws IllegalStateException {
+    State current = history.current();
+    if (current.image == null && current.source != null) {
+      return current.source;
     }
+    return current.image == null && current.snapshot != null ? current.snapshot : getImage();
+  }
 
-    return img.getRGB();
+  @Override
+  public String getHistoryReport() {
+    return history.report();
   }
 
   @Override
   public int getImageHeight() throws IllegalStateException {
-    return img.getHeight();
+    return sizeOf().getHeight();
   }
 
   @Override
   public int getImageWidth() throws IllegalStateException {
-    return img.getWidth();
+    return sizeOf().getWidth();
   }
 
   @Override
   public void process(ProcessingOperation operation) throws IllegalStateException {
-    if (imgRecord.isEmpty()) {
+    if (history.isEmpty()) {
       throw new IllegalStateException("No image to process");
     }
 
     Objects.requireNonNull(operation, "Operation cannot be null");
 
-    setImage(procOperation.get(operation).apply(img).apply());
+    if (COLOR_TRANSFORMATIONS.contains(operation)) {
+      // extend the run pending on the current state, or start a run on its image
+      State current = history.current();
+      boolean running = current.isRunning();
+      Image base = running ? current.base : getImage();
+      List<ProcessingOperation> pending = new ArrayList<>();
+      if (running) {
+        pending.addAll(current.pending);
+      }
+      pending.add(operation);
+      history.record(new State(base, pending));
+    } else {
+      record(img -> procOperation.get(operation).apply(img).apply());
+    }
   }
 
   @Override
   public void mosaic(int numSeeds) throws IllegalArgumentException, IllegalStateException {
-    if (img == null) {
+    // the random seed is drawn here rather than by the mosaic, so that it can be replayed
+    mosaic(numSeeds, new Random().nextLong());
+  }
+
+  @Override
+  public void mosaic(int numSeeds, long randomSeed) throws IllegalArgumentException,
+          IllegalStateException {
+    if (history.isEmpty()) {
       throw new IllegalStateException("No image to convert to mosaic");
     }
 
-    setImage(new Mosaic(img, numSeeds).apply());
+    record(img -> new Mosaic(img, numSeeds, randomSeed).apply());
+  }
+
+  @Override
+  public void ditherOrdered(ThresholdMatrix matrix) throws IllegalStateException {
+    if (history.isEmpty()) {
+      throw new IllegalStateException("No image to dither");
+    }
+
+    Objects.requireNonNull(matrix, "Threshold matrix cannot be null");
+
+    record(img -> new OrderedDither(img, matrix).apply());
   }
 
   @Override
   public void generateCheckerBoard(int size) throws IllegalArgumentException {
-    setImage(new GenerationCheckerBoard(size).apply());
+    history.record(new State(new GenerationCheckerBoard(size)));
   }
 
   @Override
@@ -133,13 +301,71 @@ public class ImgProcModel implements ImageProcessingModel {
           throws IllegalArgumentException {
     Objects.requireNonNull(country, "Country cannot be null");
 
-    setImage(generation.get(country).apply(height, width).apply());
+    history.record(new State(generation.get(country).apply(height, width)));
   }
 
   @Override
   public void generateRainbow(int height, int width, PatternDirection direction)
           throws IllegalArgumentException {
-    setImage(new GenerationRainbow(height, width, direction).apply());
+    history.record(new State(new GenerationRainbow(height, width, direction)));
+  }
+
+  /**
+   * Apply the given step (a deterministic operation) to the image contained in this model, and
+   * record the result with the step and the time it took, so that the history may replay it
+   * rather than keep it.
+   *
+   * @param step the deterministic operation computing the resulting image from the image
+   */
+  private void record(UnaryOperator<Image> step) {
+    Image img = getImage();
+    long start = System.nanoTime();
+    Image result = step.apply(img);
+    history.record(new State(result, step, System.nanoTime() - start));
+  }
+
+  /**
+   * Return the image of the given state if it can be computed on its own: its image if it is
+   * held, or else the image decompressed from its snapshot, generated from its source, or
+   * computed by its run of color transformations (measuring the time the run takes).
+   *
+   * @param state the state whose image can be computed on its own
+   * @return the image of the state
+   */
+  private Image imageOf(State state) {
+    if (state.image != null) {
+      return state.image;
+    } else if (state.snapshot != null) {
+      return state.snapshot.toImage();
+    } else if (state.source != null) {
+      return state.source.toImage();
+    }
+
+    long start = System.nanoTime();
+    List<ColorTransformation> transformations = new ArrayList<>();
+    for (ProcessingOperation operation : state.pending) {
+      transformations.add((ColorTransformation) procOperation.get(operation).apply(state.base));
+    }
+    Image image = new FusedColorTransformation(state.base, transformations, fast).apply();
+    state.cost = System.nanoTime() - start;
+    return image;
+  }
+
+  /**
+   * Return a source of the same size as the image contained in this model, without computing the
+   * image if it is pending, generated or compressed.
+   *
+   * @return a source of the same size as the image contained in this model
+   * @throws IllegalStateException if there is no image contained in this model
+   */
+  private PixelSource sizeOf() throws IllegalStateException {
+    State current = history.current();
+    if (current.image != null) {
+      return current.image;
+    } else if (current.snapshot != null) {
+      return current.snapshot;
+    }
+    return current.source != null ? current.source : current.base;
   }
 
   /**
@@ -169,9 +395,9 @@ public class ImgProcModel implements ImageProcessingModel {
    *
    * @return the map of country alpha code
    */
-  private static Map<CountryAlphaCode, BiFunction<Integer, Integer, ImageProcessing>>
+  private static Map<CountryAlphaCode, BiFunction<Integer, Integer, AbstractImageGeneration>>
       setGenerationMap() {
-    Map<CountryAlphaCode, BiFunction<Integer, Integer, ImageProcessing>> generationMap
+    Map<CountryAlphaCode, BiFunction<Integer, Integer, AbstractImageGeneration>> generationMap
             = new EnumMap<>(CountryAlphaCode.class);
 
     generationMap.put(CountryAlphaCode.CH, GenerationFlagCH::new);
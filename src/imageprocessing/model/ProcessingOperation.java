@@ -2,7 +2,8 @@ package imageprocessing.model;
 
 /**
  * This class represents all the processing related operations to be supported by the process method
- * in the model.
+ * in the model. Ordered dithering is not one of them, as it takes a threshold matrix (see {@link
+ * ImageProcessingModel#ditherOrdered}).
  */
 public enum ProcessingOperation {
   BLUR, SHARPEN, GREYSCALE, SEPIATONE, DITHER
@@ -0,0 +1,93 @@
+package imageprocessing.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a scratch file in a given directory, to which the history of a model
+ * spills the compressed tiles of its older snapshots, off the heap. The file is mapped into memory
+ * in segments of {@value #SEGMENT} bytes, and the bytes written to it are read back through the
+ * mapping, so that the operating system pages them in from the file as they are read, and out to
+ * it when memory is short. Bytes are only ever appended: the bytes of the snapshots the history has
+ * dropped are not reused. The file is created the first time it is written to, and deleted when the
+ * program exits.
+ */
+final class ScratchFile {
+  /**
+   * The size of a mapped segment of the file in bytes.
+   */
+  static final int SEGMENT = 1 << 26;
+
+  private final Path directory;
+  private final List<MappedByteBuffer> segments;
+  private FileChannel channel;
+  private int used;
+  private long written;
+
+  /**
+   * Construct a scratch file in the given directory, which is not created until it is written to.
+   *
+   * @param directory the directory of the scratch file
+   * @throws IllegalArgumentException if the given path is not a directory
+   */
+  ScratchFile(Path directory) throws IllegalArgumentException {
+    if (!Files.isDirectory(directory)) {
+      throw new IllegalArgumentException("Not a directory: " + directory);
+    }
+
+    this.directory = directory;
+    this.segments = new ArrayList<>();
+    this.channel = null;
+    this.used = 0;
+    this.written = 0;
+  }
+
+  /**
+   * Append the given bytes to this scratch file, and return a read-only buffer of them as mapped
+   * from the file. The bytes must fit in a segment.
+   *
+   * @param data the bytes to be written
+   * @return a read-only buffer of the bytes written
+   * @throws IOException if the file cannot be created, extended or mapped
+   */
+  ByteBuffer write(byte[] data) throws IOException {
+    if (channel == null) {
+      Path path = Files.createTempFile(directory, "history", ".scratch");
+      path.toFile().deleteOnExit();
+      channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    if (segments.isEmpty() || used + data.length > SEGMENT) {
+      segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT,
+              SEGMENT));
+      used = 0;
+    }
+
+    // write and slice through a duplicate, which has a position and limit of its own
+    ByteBuffer view = segments.get(segments.size() - 1).duplicate();
+    view.position(used);
+    view.put(data);
+    view.position(used);
+    view.limit(used + data.length);
+    ByteBuffer slice = view.slice().asReadOnlyBuffer();
+    used += data.length;
+    written += data.length;
+    return slice;
+  }
+
+  /**
+   * Return the bytes written to this scratch file so far.
+   *
+   * @return the bytes written to this scratch file
+   */
+  long bytes() {
+    return written;
+  }
+}
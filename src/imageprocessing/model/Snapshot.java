@@ -0,0 +1,442 @@
+package imageprocessing.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import imageprocessing.operation.Image;
+import imageprocessing.operation.PixelSource;
+
+/**
+ * This class represents an image of the history of a model stored in a compressed form. The image
+ * is split into square tiles of {@value #TILE} pixels a side (smaller at the right and bottom
+ * edges), each stored on its own:
+ *
+ * <ul>
+ *   <li>a tile that is the same as the tile at the same position of the previous snapshot is shared
+ *   with it, so that an operation changing part of an image only adds the tiles it changed;</li>
+ *   <li>a tile of one color (e.g. a square of a checkerboard) is stored as that color;</li>
+ *   <li>any other tile is stored as its channels deflated, one byte per pixel if the tile is grey
+ *   (its three channels are the same, e.g. after greyscale or dithering), three bytes otherwise.
+ *   Deflating encodes the runs of a low-entropy tile as back-references, and a tile it does not
+ *   make smaller is stored as its channels.</li>
+ * </ul>
+ *
+ * <p>The compressed channels of the tiles may be spilled to a {@link ScratchFile}, off the heap,
+ * and are then read back from the file as they are decompressed. As a {@link PixelSource}, the
+ * image is decompressed whole by {@link #toImage()}, or a band of tiles at a time as its rows are
+ * read.
+ */
+final class Snapshot implements PixelSource {
+  /**
+   * The size of a side of a tile in pixels.
+   */
+  static final int TILE = 64;
+
+  /**
+   * The bytes a snapshot or a tile takes besides its tiles or compressed channels (the headers of
+   * the object and its array).
+   */
+  static final long OVERHEAD = 48;
+
+  private final int height;
+  private final int width;
+  private final int across;
+  private final Tile[] tiles;
+  private final long storedBytes;
+  private boolean spilled;
+  private int[] band;
+  private int bandIndex;
+
+  /**
+   * This class represents a compressed tile: either one color, or its channels (deflated or not),
+   * held on the heap or spilled to a scratch file.
+   */
+  private static final class Tile {
+    private final int color;
+    private final boolean grey;
+    private final boolean deflated;
+    private final int length;
+    private final long checksum;
+    private byte[] data;
+    private ByteBuffer spilled;
+
+    /**
+     * Construct a tile of the given color.
+     *
+     * @param color the packed color of every pixel of the tile
+     */
+    Tile(int color) {
+      this.color = color;
+      this.grey = false;
+      this.deflated = false;
+      this.length = 0;
+      this.checksum = 0;
+      this.data = null;
+      this.spilled = null;
+    }
+
+    /**
+     * Construct a tile of the given channels.
+     *
+     * @param grey     true if the channels are one byte per pixel, false if three
+     * @param deflated true if the given data is the channels deflated, false if it is the channels
+     * @param length   the number of bytes of the channels
+     * @param checksum the checksum of the channels
+     * @param data     the channels, deflated or not
+     */
+    Tile(boolean grey, boolean deflated, int length, long checksum, byte[] data) {
+      this.color = 0;
+      this.grey = grey;
+      this.deflated = deflated;
+      this.length = length;
+      this.checksum = checksum;
+      this.data = data;
+      this.spilled = null;
+    }
+
+    /**
+     * Return the bytes this tile takes on the heap.
+     *
+     * @return the bytes this tile takes on the heap
+     */
+    long bytes() {
+      if (spilled != null) {
+        return 2 * OVERHEAD;
+      }
+      return OVERHEAD + (data == null ? 0 : data.length);
+    }
+  }
+
+  /**
+   * Construct the snapshot of the given image, sharing the tiles that are the same as those of the
+   * given previous snapshot, if it is of the same size.
+   *
+   * @param image    the image to be compressed
+   * @param previous the previous snapshot whose tiles may be shared, or null
+   */
+  Snapshot(Image image, Snapshot previous) {
+    this.height = image.getHeight();
+    this.width = image.getWidth();
+    this.across = (width + TILE - 1) / TILE;
+    this.tiles = new Tile[(height + TILE - 1) / TILE * across];
+    this.bandIndex = -1;
+
+    boolean shared = previous != null && previous.height == height && previous.width == width;
+    int[] rows = new int[Math.min(TILE, height) * width];
+    byte[] channels = new byte[3 * TILE * TILE];
+    byte[] output = new byte[channels.length];
+    byte[] previousChannels = new byte[channels.length];
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    CRC32 crc = new CRC32();
+    long stored = OVERHEAD + 8L * tiles.length;
+
+    try {
+      for (int top = 0; top < height; top += TILE) {
+        int bottom = Math.min(top + TILE, height);
+        for (int i = top; i < bottom; i++) {
+          image.readRow(i, rows, (i - top) * width);
+        }
+
+        for (int left = 0; left < width; left += TILE) {
+          int right = Math.min(left + TILE, width);
+          int t = top / TILE * across + left / TILE;
+          int length = toChannels(rows, bottom - top, left, right, channels);
+
+          Tile tile;
+          if (length == 0) {
+            tile = new Tile(rows[left]);
+            if (shared && previous.tiles[t].length == 0 && previous.tiles[t].color == tile.color) {
+              tile = previous.tiles[t];
+            }
+          } else {
+            crc.reset();
+            crc.update(channels, 0, length);
+            long checksum = crc.getValue();
+            Tile other = shared ? previous.tiles[t] : null;
+
+            if (other != null && other.length == length
+                    && other.checksum == checksum && equals(other, channels, previousChannels)) {
+              tile = other;
+            } else {
+              deflater.reset();
+              deflater.setInput(channels, 0, length);
+              deflater.finish();
+              int n = deflater.deflate(output);
+              boolean deflated = deflater.finished() && n < length;
+              tile = new Tile(length == (bottom - top) * (right - left), deflated, length, checksum,
+                      deflated ? Arrays.copyOf(output, n) : Arrays.copyOf(channels, length));
+            }
+          }
+
+          if (tile != (shared ? previous.tiles[t] : null)) {
+            stored += tile.bytes();
+          }
+          tiles[t] = tile;
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+
+    this.storedBytes = stored;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public void readRow(int i, int[] row, int offset) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= height) {
+      throw new IndexOutOfBoundsException("Row " + i + " is outside the image");
+    }
+    if (offset < 0 || offset + width > row.length) {
+      throw new IndexOutOfBoundsException("The row does not fit in the array");
+    }
+
+    if (bandIndex != i / TILE) {
+      if (band == null) {
+        band = new int[Math.min(TILE, height) * width];
+      }
+      decodeBand(i / TILE, band, 0);
+      bandIndex = i / TILE;
+    }
+    System.arraycopy(band, i % TILE * width, row, offset, width);
+  }
+
+  @Override
+  public Image toImage() {
+    int[] pixels = new int[height * width];
+    for (int b = 0; b * TILE < height; b++) {
+      decodeBand(b, pixels, b * TILE * width);
+    }
+    return Image.ofOwned(height, width, pixels);
+  }
+
+  /**
+   * Return the bytes this snapshot takes, counting every tile once.
+   *
+   * @return the bytes this snapshot takes
+   */
+  long bytes() {
+    return bytes(Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  /**
+   * Return the bytes this snapshot and its tiles take, but for those already in the given set of
+   * counted objects, and add them to it. This counts the tiles shared by several snapshots once.
+   *
+   * @param counted the objects already counted, by identity
+   * @return the bytes this snapshot and its tiles not counted yet take
+   */
+  long bytes(Set<Object> counted) {
+    if (!counted.add(this)) {
+      return 0;
+    }
+
+    long total = OVERHEAD + 8L * tiles.length;
+    for (Tile tile : tiles) {
+      if (counted.add(tile)) {
+        total += tile.bytes();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Spill the compressed channels of the tiles of this snapshot held on the heap to the given
+   * scratch file, and return the bytes of the heap this frees. A tile shared with another snapshot
+   * is spilled for both.
+   *
+   * @param scratch the scratch file to spill the tiles to
+   * @return the bytes of the heap freed
+   * @throws IOException if the tiles cannot be written to the scratch file
+   */
+  long spill(ScratchFile scratch) throws IOException {
+    long freed = 0;
+
+    for (Tile tile : tiles) {
+      if (tile.data != null) {
+        long before = tile.bytes();
+        tile.spilled = scratch.write(tile.data);
+        tile.data = null;
+        freed += before - tile.bytes();
+      }
+    }
+    spilled = true;
+    return freed;
+  }
+
+  /**
+   * Return true if the tiles of this snapshot have been spilled to a scratch file, false otherwise.
+   *
+   * @return true if this snapshot has been spilled, false otherwise
+   */
+  boolean isSpilled() {
+    return spilled;
+  }
+
+  /**
+   * Return the bytes the tiles of this snapshot not shared with the previous snapshot took when it
+   * was constructed.
+   *
+   * @return the bytes this snapshot added to the previous snapshot
+   */
+  long storedBytes() {
+    return storedBytes;
+  }
+
+  /**
+   * Decompress the given band of tiles (the rows from b * {@value #TILE} on) into the given array
+   * from the given offset on, in row-major order.
+   *
+   * @param b      the index of the band of tiles
+   * @param pixels the array to store the rows of the band in
+   * @param offset the index of the first pixel of the band in the array
+   */
+  private void decodeBand(int b, int[] pixels, int offset) {
+    int rows = Math.min(TILE, height - b * TILE);
+    byte[] channels = new byte[3 * TILE * TILE];
+
+    for (int left = 0; left < width; left += TILE) {
+      int right = Math.min(left + TILE, width);
+      Tile tile = tiles[b * across + left / TILE];
+
+      if (tile.length == 0) {
+        for (int i = 0; i < rows; i++) {
+          Arrays.fill(pixels, offset + i * width + left, offset + i * width + right, tile.color);
+        }
+        continue;
+      }
+
+      byte[] data = decode(tile, channels);
+      int k = 0;
+      for (int i = 0; i < rows; i++) {
+        for (int j = offset + i * width + left; j < offset + i * width + right; j++) {
+          if (tile.grey) {
+            int v = data[k++] & 0xFF;
+            pixels[j] = v << 16 | v << 8 | v;
+          } else {
+            pixels[j] = (data[k] & 0xFF) << 16 | (data[k + 1] & 0xFF) << 8 | (data[k + 2] & 0xFF);
+            k += 3;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the channels of the given tile, inflated into the given buffer if it is deflated, or
+   * read into it if it is spilled.
+   *
+   * @param tile   the tile of channels
+   * @param buffer the buffer to inflate or read the channels into
+   * @return the channels of the tile
+   * @throws IllegalStateException if the deflated channels are corrupted
+   */
+  private static byte[] decode(Tile tile, byte[] buffer) throws IllegalStateException {
+    ByteBuffer spilled = tile.spilled;
+    if (!tile.deflated && spilled == null) {
+      return tile.data;
+    } else if (!tile.deflated) {
+      spilled.duplicate().get(buffer, 0, tile.length);
+      return buffer;
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      if (spilled == null) {
+        inflater.setInput(tile.data);
+      } else {
+        byte[] deflated = new byte[spilled.remaining()];
+        spilled.duplicate().get(deflated);
+        inflater.setInput(deflated);
+      }
+      if (inflater.inflate(buffer, 0, tile.length) != tile.length) {
+        throw new IllegalStateException("Corrupted snapshot");
+      }
+      return buffer;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupted snapshot", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Return true if the channels of the given tile are the same as the given channels, false
+   * otherwise. Their lengths are known to be the same.
+   *
+   * @param tile     the tile of channels
+   * @param channels the channels to compare with, as many as the tile has
+   * @param buffer   the buffer to inflate the channels of the tile into
+   * @return true if the channels of the tile are the same as the given channels
+   */
+  private static boolean equals(Tile tile, byte[] channels, byte[] buffer) {
+    byte[] data = decode(tile, buffer);
+    for (int k = 0; k < tile.length; k++) {
+      if (data[k] != channels[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Store the channels of the tile of the given rows from the given left column (inclusive) to the
+   * given right column (exclusive) in the given array, one byte per pixel if the tile is grey,
+   * three bytes otherwise, and return their number, or 0 if the tile is of one color.
+   *
+   * @param rows     the pixels of the band of rows of the tile, in row-major order
+   * @param height   the number of rows of the band
+   * @param left     the first column of the tile
+   * @param right    the column after the last column of the tile
+   * @param channels the array to store the channels in
+   * @return the number of bytes stored, or 0 if the tile is of one color
+   */
+  private int toChannels(int[] rows, int height, int left, int right, byte[] channels) {
+    int first = rows[left];
+    boolean uniform = true;
+    boolean grey = true;
+
+    for (int i = 0; i < height; i++) {
+      for (int j = i * width + left; j < i * width + right; j++) {
+        int p = rows[j];
+        uniform &= p == first;
+        grey &= (p >>> 16) == (p & 0xFF) && ((p >>> 8) & 0xFF) == (p & 0xFF);
+      }
+    }
+    if (uniform) {
+      return 0;
+    }
+
+    int k = 0;
+    for (int i = 0; i < height; i++) {
+      for (int j = i * width + left; j < i * width + right; j++) {
+        int p = rows[j];
+        if (grey) {
+          channels[k++] = (byte) p;
+        } else {
+          channels[k++] = (byte) (p >>> 16);
+          channels[k++] = (byte) (p >>> 8);
+          channels[k++] = (byte) p;
+        }
+      }
+    }
+    return k;
+  }
+}
@@ -0,0 +1,106 @@
+package imageprocessing.model;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import imageprocessing.operation.Image;
+import imageprocessing.operation.PixelSource;
+
+/**
+ * This class represents a state in the history of a model: either an image, a run of color
+ * transformations pending on the image it starts from, or a generated image, whose resulting image
+ * is computed the first time it is needed. An image may also record the deterministic operation
+ * (its step) that computed it from the image of the state before it, and how long that took. Once
+ * it is no longer the current state, its image may be dropped and kept as a compressed snapshot
+ * instead, or dropped altogether to be computed again by replaying the steps from an earlier state
+ * (see {@link History}), the next time it is needed.
+ */
+class State {
+  Image image;
+  Snapshot snapshot;
+  long cost;
+  final Image base;
+  final List<ProcessingOperation> pending;
+  final PixelSource source;
+  final UnaryOperator<Image> step;
+
+  /**
+   * Construct a state with the given image.
+   *
+   * @param image the image of this state
+   */
+  State(Image image) {
+    this(image, null, 0);
+  }
+
+  /**
+   * Construct a state with the given image, computed from the image of the state before it by the
+   * given step in the given time.
+   *
+   * @param image the image of this state
+   * @param step  the deterministic operation computing the image from the image before it, or null
+   * @param cost  the time the step took in nanoseconds
+   */
+  State(Image image, UnaryOperator<Image> step, long cost) {
+    this.image = image;
+    this.snapshot = null;
+    this.cost = cost;
+    this.base = null;
+    this.pending = null;
+    this.source = null;
+    this.step = step;
+  }
+
+  /**
+   * Construct a state with the given source of the rows of its image, which is not read until the
+   * image is needed.
+   *
+   * @param source the source of the rows of the image of this state
+   */
+  State(PixelSource source) {
+    this.image = null;
+    this.snapshot = null;
+    this.cost = 0;
+    this.base = null;
+    this.pending = null;
+    this.source = source;
+    this.step = null;
+  }
+
+  /**
+   * Construct a state with the given color transformations pending on the given image.
+   *
+   * @param base    the image the color transformations start from
+   * @param pending the color transformations in the order they are to be applied
+   */
+  State(Image base, List<ProcessingOperation> pending) {
+    this.image = null;
+    this.snapshot = null;
+    this.cost = 0;
+    this.base = base;
+    this.pending = pending;
+    this.source = null;
+    this.step = null;
+  }
+
+  /**
+   * Return true if this state is a run of color transformations whose resulting image is not held
+   * (it has not been computed yet, or has been compressed or dropped since), false otherwise.
+   *
+   * @return true if the run of this state is pending, false otherwise
+   */
+  boolean isRunning() {
+    return image == null && pending != null;
+  }
+
+  /**
+   * Return true if the image of this state is held, or can be computed without the states before
+   * it (from its snapshot, its source or the image its run starts from), false if it can only be
+   * computed by replaying its step.
+   *
+   * @return true if the image of this state can be computed on its own, false otherwise
+   */
+  boolean isHeld() {
+    return image != null || snapshot != null || source != null || base != null;
+  }
+}
@@ -1,12 +1,16 @@
 package imageprocessing.operation;
 
+import java.util.Arrays;
+
 /**
  * This abstract class contains the common field and constructor for all types of 24-bit image
  * generation operations, and offers all the methods mandated by the {@link ImageProcessing}
- * interface. It has the RGB matrix, height and width of the image to be generated.
+ * interface. It has the height and width of the image to be generated. The image is generated a
+ * row at a time, in runs of pixels of the same color, with no object per pixel, and the rows are
+ * generated in parallel if more than one thread is allowed (see {@link ParallelExecutor}). As a
+ * {@link PixelSource}, the rows can also be read one by one without generating the whole image.
  */
-public abstract class AbstractImageGeneration implements ImageProcessing {
-  protected int[][][] rgb;
+public abstract class AbstractImageGeneration implements ImageProcessing, PixelSource {
   protected int height;
   protected int width;
 
@@ -25,26 +29,74 @@ public abstract class AbstractImageGeneration implements ImageProcessing {
 
     this.height = height;
     this.width = width;
-    this.rgb = new int[height][width][3];
   }
 
   @Override
   public Image apply() {
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        rgb[i][j] = color(i, j);
+    int[] pixels = new int[height * width];
+
+    ParallelExecutor.forEachBand(height, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        fillRow(i, pixels, i * width);
       }
+    });
+    return Image.wrap(height, width, pixels);
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public void readRow(int i, int[] row, int offset) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= height) {
+      throw new IndexOutOfBoundsException("Row " + i + " is outside the image");
     }
-    return new Image(rgb);
+    if (offset < 0 || offset + width > row.length) {
+      throw new IndexOutOfBoundsException("The row does not fit in the array");
+    }
+
+    fillRow(i, row, offset);
+  }
+
+  @Override
+  public Image toImage() {
+    return apply();
   }
 
   /**
-   * Return as an array the RGB values of the pixel at (i ,j) of the image to be generated. The
-   * order of the values in the array is red, green and blue.
+   * Fill row i of the image to be generated with its packed pixels (0xRRGGBB), from the given
+   * offset of the given array on. The row is a few runs of the same color, each filled at once with
+   * {@link #fillRun(int[], int, int, int, int)}.
    *
-   * @param i the row position of the pixel
-   * @param j the column position of the pixel
-   * @return the RGB values of the pixel at (i ,j) as an array
+   * @param i      the row position of the pixels
+   * @param pixels the array to store the row in
+   * @param offset the index of the first pixel of the row in the array
    */
-  protected abstract int[] color(int i, int j);
+  protected abstract void fillRow(int i, int[] pixels, int offset);
+
+  /**
+   * Fill the pixels of a row from the given start column (inclusive) to the given end column
+   * (exclusive) with the given packed color. The columns are clipped to the width of the image, so
+   * a run that ends past the image or is empty can be given.
+   *
+   * @param pixels the array the row is stored in
+   * @param offset the index of the first pixel of the row in the array
+   * @param from   the first column of the run
+   * @param to     the column after the last column of the run
+   * @param color  the packed color of the run
+   */
+  protected void fillRun(int[] pixels, int offset, int from, int to, int color) {
+    from = Math.max(from, 0);
+    to = Math.min(to, width);
+    if (from < to) {
+      Arrays.fill(pixels, offset + from, offset + to, color);
+    }
+  }
 }
@@ -1,7 +1,5 @@
 package imageprocessing.operation;
 
-import java.util.Objects;
-
 /**
  * This abstract class contains the common field and constructor for all types of image processing
  * operations on 24-bit images, and offers all the methods mandated by the {@link ImageProcessing}
@@ -25,31 +23,36 @@ public abstract class AbstractImageProcessing implements ImageProcessing {
   }
 
   /**
-   * Clamp all the values in the given RGB matrix to 8 bits per channel (each value in each channel
-   * is between 0 and 255) after applying this image processing operation, to avoid overflow and
-   * underflow. The operation deals with 24-bit image so the permissible minimum is 0, and maximum
-   * is 255. Each value in an image that is lesser than the minimum is assigned to the minimum, and
-   * each value greater than the maximum is assigned to the maximum. Clamping is usually implemented
-   * as the last step of an image processing operation, to ensure that the resulting image can be
-   * properly saved and displayed.
+   * Clamp the given channel value to 8 bits (between 0 and 255) after applying this image
+   * processing operation, to avoid overflow and underflow. The operation deals with 24-bit image so
+   * the permissible minimum is 0, and maximum is 255. A value that is lesser than the minimum is
+   * assigned to the minimum, and a value greater than the maximum is assigned to the maximum.
+   * Clamping is usually implemented as the last step of computing a channel value, to ensure that
+   * the resulting image can be properly saved and displayed.
    *
-   * @param rgb the RGB matrix of an image to be clamped
+   * @param value the channel value to be clamped
+   * @return the clamped channel value
    */
-  protected static void clamp(int[][][] rgb) {
-    Objects.requireNonNull(rgb, "The RGB matrix must not be null to be clamped");
-    int h = rgb.length;
-    int w = rgb[0].length;
-
-    for (int i = 0; i < h; i++) {
-      for (int j = 0; j < w; j++) {
-        for (int m = 0; m < 3; m++) {
-          if (rgb[i][j][m] < 0) {
-            rgb[i][j][m] = 0;
-          } else if (rgb[i][j][m] > 255) {
-            rgb[i][j][m] = 255;
-          }
-        }
-      }
+  protected static int clamp(int value) {
+    if (value < 0) {
+      return 0;
+    } else if (value > 255) {
+      return 255;
     }
+    return value;
+  }
+
+  /**
+   * Round the given channel values of a pixel, clamp them to 8 bits and return them packed as
+   * 0xRRGGBB.
+   *
+   * @param r the red value
+   * @param g the green value
+   * @param b the blue value
+   * @return the packed pixel
+   */
+  protected static int toPixel(double r, double g, double b) {
+    return Image.pack(clamp((int) Math.round(r)), clamp((int) Math.round(g)),
+            clamp((int) Math.round(b)));
   }
 }
@@ -0,0 +1,111 @@
+package imageprocessing.operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents the lookup table of a 3x3 color transformation matrix. As every output
+ * channel is a linear combination of the three 8-bit input channels, the product of each weight
+ * with each of the 256 input values is computed once, and a pixel is transformed with 9 table reads
+ * and 6 additions instead of 9 multiplications. The table holds the products of the red, green and
+ * blue inputs in this order, 768 each, with the products for the three output channels next to
+ * each other, e.g. matrix[0][1] * v, matrix[1][1] * v and matrix[2][1] * v are at 768 + 3v,
+ * 768 + 3v + 1 and 768 + 3v + 2. The products are summed in the same order as the per-pixel
+ * arithmetic would, so the result is exactly the same. If the three rows of the matrix are the
+ * same (like greyscale), the output channel is computed once and copied to the other two.
+ *
+ * <p>The tables are cached by the values of the matrix and shared by every operation using the
+ * same matrix, so they are built once per program run rather than once per {@code apply()}.
+ */
+final class ColorLookupTable {
+  private static final Map<List<Double>, ColorLookupTable> CACHE = new ConcurrentHashMap<>();
+
+  private final double[] products;
+  private final boolean grey;
+
+  /**
+   * Construct the lookup table of the given 3x3 color transformation matrix.
+   *
+   * @param matrix the color transformation matrix
+   */
+  private ColorLookupTable(double[][] matrix) {
+    this.products = new double[3 * 256 * 3];
+    this.grey = Arrays.equals(matrix[0], matrix[1]) && Arrays.equals(matrix[1], matrix[2]);
+
+    for (int m = 0; m < 3; m++) {
+      for (int v = 0; v < 256; v++) {
+        for (int c = 0; c < 3; c++) {
+          products[(m * 256 + v) * 3 + c] = matrix[c][m] * v;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the lookup table of the given 3x3 color transformation matrix, building it the first
+   * time the values of the matrix are seen.
+   *
+   * @param matrix the color transformation matrix
+   * @return the lookup table of the matrix
+   */
+  static ColorLookupTable of(double[][] matrix) {
+    List<Double> key = new ArrayList<>(9);
+    for (int c = 0; c < 3; c++) {
+      for (int m = 0; m < 3; m++) {
+        key.add(matrix[c][m]);
+      }
+    }
+
+    return CACHE.computeIfAbsent(key, k -> new ColorLookupTable(matrix));
+  }
+
+  /**
+   * Return the first output channel (e.g. red) of the given pixel transformed, as {@link
+   * #transform(int[], int, int, int[])} would compute it. For a matrix whose rows are the same
+   * (like greyscale), this is the value of every channel.
+   *
+   * @param p the packed pixel
+   * @return the first output channel of the transformed pixel
+   */
+  int firstChannel(int p) {
+    return AbstractImageProcessing.clamp((int) Math.round(products[Image.red(p) * 3]
+            + products[(256 + Image.green(p)) * 3] + products[(512 + Image.blue(p)) * 3]));
+  }
+
+  /**
+   * Transform the pixels from the given start index (inclusive) to the given end index (exclusive),
+   * and store the resulting pixels (rounded and clamped) in the given output.
+   *
+   * @param pixels the packed pixels of the image
+   * @param start  the index of the first pixel to be transformed
+   * @param end    the index after the last pixel to be transformed
+   * @param output the packed pixels of the resulting image
+   */
+  void transform(int[] pixels, int start, int end, int[] output) {
+    double[] table = products;
+
+    if (grey) {
+      for (int k = start; k < end; k++) {
+        int p = pixels[k];
+        int v = AbstractImageProcessing.clamp((int) Math.round(table[Image.red(p) * 3]
+                + table[(256 + Image.green(p)) * 3] + table[(512 + Image.blue(p)) * 3]));
+        output[k] = Image.pack(v, v, v);
+      }
+      return;
+    }
+
+    for (int k = start; k < end; k++) {
+      int p = pixels[k];
+      int r = Image.red(p) * 3;
+      int g = (256 + Image.green(p)) * 3;
+      int b = (512 + Image.blue(p)) * 3;
+
+      output[k] = AbstractImageProcessing.toPixel(table[r] + table[g] + table[b],
+              table[r + 1] + table[g + 1] + table[b + 1],
+              table[r + 2] + table[g + 2] + table[b + 2]);
+    }
+  }
+}
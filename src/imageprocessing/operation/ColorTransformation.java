@@ -1,5 +1,7 @@
 package imageprocessing.operation;
 
+import java.util.function.IntUnaryOperator;
+
 /**
  * This abstract class contains the common field and constructor for all types of color
  * transformation operations on 24-bit images, and offers all the methods mandated by the {@link
@@ -8,7 +10,9 @@ package imageprocessing.operation;
  * blue values of a pixel are linear combinations of its initial red, green and blue values. For
  * example, if the initial color of the pixel at (5, 4) of the image is (r, g, b), then the final
  * red value is 0.3r + 0.4g + 0.6b for transMatrix[0] = {0.3, 0.4, 0.6}. Examples of such operation
- * are greyscale and sepia tone, etc.
+ * are greyscale and sepia tone, etc. The matrix is applied through its lookup table (see {@link
+ * ColorLookupTable}), which is shared by every operation with the same matrix, or with integer
+ * arithmetic in the fixed-point mode (see {@link FixedPoint}).
  */
 public abstract class ColorTransformation extends AbstractImageProcessing {
   protected double[][] transMatrix;
@@ -25,24 +29,35 @@ public abstract class ColorTransformation extends AbstractImageProcessing {
 
   @Override
   public Image apply() {
-    int[][][] rgb = img.getRGB();
     int height = img.getHeight();
     int width = img.getWidth();
-    int[][][] rgbOutput = new int[height][width][3];
+    int[] pixels = img.pixelArray();
+    int[] output = new int[height * width];
+    int[][] fixedMatrix = FixedPoint.isEnabled() ? FixedPoint.toFixed(transMatrix) : null;
+    ColorLookupTable table = fixedMatrix == null ? ColorLookupTable.of(transMatrix) : null;
 
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        rgbOutput[i][j][0] = (int) Math.round(transMatrix[0][0] * rgb[i][j][0]
-                + transMatrix[0][1] * rgb[i][j][1] + transMatrix[0][2] * rgb[i][j][2]);
-        rgbOutput[i][j][1] = (int) Math.round(transMatrix[1][0] * rgb[i][j][0]
-                + transMatrix[1][1] * rgb[i][j][1] + transMatrix[1][2] * rgb[i][j][2]);
-        rgbOutput[i][j][2] = (int) Math.round(transMatrix[2][0] * rgb[i][j][0]
-                + transMatrix[2][1] * rgb[i][j][1] + transMatrix[2][2] * rgb[i][j][2]);
+    ParallelExecutor.forEachBand(height, (start, end) -> {
+      if (fixedMatrix != null) {
+        KernelBackend.SELECTED.transformFixed(pixels, fixedMatrix, start * width, end * width,
+                output);
+      } else {
+        table.transform(pixels, start * width, end * width, output);
       }
-    }
+    });
 
-    clamp(rgbOutput);
+    return Image.wrap(height, width, output);
+  }
 
-    return new Image(rgbOutput);
+  /**
+   * Return the function giving the first output channel (e.g. red) of a packed pixel transformed by
+   * this operation, computed as {@link #apply()} would in double arithmetic. For a matrix whose
+   * rows are the same (like greyscale), this is the value of every channel. The fixed-point mode
+   * is ignored, as its result may be 1 off, which would move a pixel across a threshold (e.g. of a
+   * dithering operation) and change it from black to white.
+   *
+   * @return the function giving the first output channel of a transformed pixel
+   */
+  IntUnaryOperator firstChannel() {
+    return ColorLookupTable.of(transMatrix)::firstChannel;
   }
-}
\ No newline at end of file
+}
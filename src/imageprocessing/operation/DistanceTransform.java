@@ -0,0 +1,93 @@
+package imageprocessing.operation;
+
+import java.util.Arrays;
+
+/**
+ * This class contains the Manhattan distance transform of an image with seeds, which labels every
+ * pixel with its nearest seed in a few passes over the image, whatever the number of seeds. As the
+ * Manhattan distance is the sum of the distances along the rows and along the columns, it is found
+ * in two steps: first every pixel gets the nearest seed in its own row, by a sweep of each row
+ * from the left and one from the right; then every pixel gets the nearest of the results of its
+ * column, by a sweep of each column from the top and one from the bottom, each step adding 1 to
+ * the distance. The distances are compared together with the indices of the seeds, so that of the
+ * seeds at the same distance, the one of the lowest index is the nearest, like a linear search over
+ * the seeds in order would find.
+ */
+final class DistanceTransform {
+  // farther than any pixel, and far enough from overflowing when a row or column is added to it
+  private static final int FAR = Integer.MAX_VALUE / 2;
+
+  private DistanceTransform() {
+  }
+
+  /**
+   * Return the index of the nearest seed of every pixel of an image of the given size, by
+   * Manhattan distance, the lowest index of them if several seeds are equally near. The rows, and
+   * then the columns, are split into bands that run in parallel if more than one thread is allowed
+   * (see {@link ParallelExecutor}).
+   *
+   * @param height   the height of the image
+   * @param width    the width of the image
+   * @param seedRows the row position of every seed
+   * @param seedCols the column position of every seed
+   * @return the index of the nearest seed of every pixel in row-major order
+   */
+  static int[] label(int height, int width, int[] seedRows, int[] seedCols) {
+    int[] labels = new int[height * width];
+    int[] distances = new int[height * width];
+
+    Arrays.fill(distances, FAR);
+    for (int s = seedRows.length - 1; s >= 0; s--) {
+      // the lowest index is the last to be written where seeds are repeated
+      int k = seedRows[s] * width + seedCols[s];
+      distances[k] = 0;
+      labels[k] = s;
+    }
+
+    // the nearest seed in the same row
+    ParallelExecutor.forEachBand(height, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        int row = i * width;
+        for (int k = row + 1; k < row + width; k++) {
+          relax(distances, labels, k, k - 1);
+        }
+        for (int k = row + width - 2; k >= row; k--) {
+          relax(distances, labels, k, k + 1);
+        }
+      }
+    });
+
+    // the nearest of the results of the same column, a band of columns a row at a time
+    ParallelExecutor.forEachBand(width, (start, end) -> {
+      for (int i = 1; i < height; i++) {
+        for (int k = i * width + start; k < i * width + end; k++) {
+          relax(distances, labels, k, k - width);
+        }
+      }
+      for (int i = height - 2; i >= 0; i--) {
+        for (int k = i * width + start; k < i * width + end; k++) {
+          relax(distances, labels, k, k + width);
+        }
+      }
+    });
+
+    return labels;
+  }
+
+  /**
+   * Give pixel k the nearest seed of its neighbour n instead of its own, if that seed, one pixel
+   * farther, is nearer than its own, or as near and of a lower index.
+   *
+   * @param distances the distance to the nearest seed found so far of every pixel
+   * @param labels    the index of the nearest seed found so far of every pixel
+   * @param k         the pixel
+   * @param n         the neighbour of the pixel
+   */
+  private static void relax(int[] distances, int[] labels, int k, int n) {
+    int d = distances[n] + 1;
+    if (d < distances[k] || (d == distances[k] && labels[n] < labels[k])) {
+      distances[k] = d;
+      labels[k] = labels[n];
+    }
+  }
+}
@@ -1,11 +1,24 @@
 package imageprocessing.operation;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+
 /**
  * This class represents the dithering operation on a 24-bit image, and offers all the methods
  * mandated by the {@link ImageProcessing} interface. It contains the image to be processed and uses
- * the Floyd-Steinberg algorithm.
+ * the Floyd-Steinberg algorithm. As the greyscale of the image has the same value in every channel,
+ * only one channel is dithered: the luminance of each pixel is computed as it is reached, the error
+ * is diffused through a buffer for the row below (two rows of errors in all), and the resulting
+ * black or white pixel is written straight to the output, so the extra memory is O(width). Each
+ * pixel diffuses its error to pixels on its right and in the row below only, so if more than one
+ * thread is allowed (see {@link ParallelExecutor}), the rows are dithered in parallel as a
+ * wavefront, each row two pixels behind the row above it, with the same result as dithering them
+ * one by one.
  */
 public class Dither implements ImageProcessing {
+  private static final int PROGRESS_STEP = 32;
+  private static final int SPINS = 100;
   private Image img;
 
   /**
@@ -19,40 +32,109 @@ public class Dither implements ImageProcessing {
 
   @Override
   public Image apply() {
-    Greyscale grey = new Greyscale(img);
-    Image greyedImg = grey.apply();
-    int[][][] rgb = greyedImg.getRGB();
-    int height = greyedImg.getHeight();
-    int width = greyedImg.getWidth();
-
-    for (int i = 0; i < height; ++i) {
-      for (int j = 0; j < width; ++j) {
-        for (int k = 0; k < 3; ++k) {
-          // (i, j) in image
-          int old_color = rgb[i][j][k];
-          int new_color = old_color > 128 ? 255 : 0;
-          int error = old_color - new_color;
-          rgb[i][j][k] = new_color;
-
-          if (j + 1 < width) {
-            rgb[i][j + 1][k] += (int) Math.round(7 * error / 16.0);
-          }
-
-          if (i + 1 < height) {
-            rgb[i + 1][j][k] += (int) Math.round(5 * error / 16.0);
-
-            if (j - 1 >= 0) {
-              rgb[i + 1][j - 1][k] += (int) Math.round(3 * error / 16.0);
-            }
-
-            if (j + 1 < width) {
-              rgb[i + 1][j + 1][k] += (int) Math.round(error / 16.0);
-            }
-          }
-        }
+    int height = img.getHeight();
+    int width = img.getWidth();
+    int[] pixels = img.pixelArray();
+    int[] output = new int[height * width];
+    int threads = Math.min(ParallelExecutor.getThreads(), height);
+
+    // the luminance is the greyscale of the image, computed as Greyscale would in double arithmetic
+    IntUnaryOperator luminance = new Greyscale(img).firstChannel();
+
+    // the error diffused to a row, one buffer for every row that may be dithered at a time and one
+    // for the row below the last of them
+    int[][] errors = new int[threads + 1][width];
+
+    if (threads < 2) {
+      for (int i = 0; i < height; ++i) {
+        ditherRow(pixels, luminance, errors, height, width, i, output, null);
       }
+    } else {
+      // thread t dithers rows t, t + threads, t + 2 * threads, etc. in order, each row following
+      // the row above it as a wavefront
+      AtomicLongArray progress = new AtomicLongArray(threads);
+      ParallelExecutor.forEachThread(threads, t -> {
+        for (int i = t; i < height; i += threads) {
+          ditherRow(pixels, luminance, errors, height, width, i, output, progress);
+        }
+      });
     }
 
-    return new Image(rgb);
+    return Image.wrap(height, width, output);
+  }
+
+  /**
+   * Dither row i of the image, diffusing the error of every pixel to its neighbours on the right
+   * and in the row below, and store the resulting pixels in the given output. If the progress of
+   * the rows is given, the row follows the row above it as a wavefront: pixel (i, j) is only
+   * dithered once the row above has dithered every pixel up to (i - 1, j + 2), which is the last
+   * pixel to diffuse error to (i, j) or to share a neighbour with it. Since the error is diffused
+   * as integers, the result does not depend on the order of the additions, and is the same as
+   * dithering the rows one after another.
+   *
+   * <p>The row reads the error diffused to it from buffer i % n of the given n error buffers, and
+   * diffuses error to the row below in buffer (i + 1) % n, which it clears first. The progress of
+   * row i is kept at i % (n - 1), as i * (width + 1) plus the number of pixels dithered, so that it
+   * only grows as the same thread moves on to its next row.
+   *
+   * @param pixels    the packed pixels of the image
+   * @param luminance the luminance of a packed pixel
+   * @param errors    the error buffers of the rows being dithered
+   * @param height    the height of the image
+   * @param width     the width of the image
+   * @param i         the row to be dithered
+   * @param output    the packed pixels of the resulting image
+   * @param progress  the progress of the rows being dithered, or null to dither the row at once
+   */
+  private static void ditherRow(int[] pixels, IntUnaryOperator luminance, int[][] errors,
+                                int height, int width, int i, int[] output,
+                                AtomicLongArray progress) {
+    int[] current = errors[i % errors.length];
+    int[] below = errors[(i + 1) % errors.length];
+    Arrays.fill(below, 0);
+
+    long ready = progress == null || i == 0 ? Long.MAX_VALUE : 0;
+    long above = (long) (i - 1) * (width + 1);
+    // the error diffused from the pixel on the left
+    int right = 0;
+
+    for (int j = 0; j < width; ++j) {
+      long needed = above + Math.min(j + 3, width);
+      for (int spins = 0; ready < needed; spins++) {
+        ready = progress.get((i - 1) % progress.length());
+        // give way to the thread of the row above if it is not running
+        if (ready < needed && spins >= SPINS) {
+          ParallelExecutor.awaitUntil(() -> progress.get((i - 1) % progress.length()) >= needed);
+        }
+      }
+
+      // (i, j) in image
+      int old_color = luminance.applyAsInt(pixels[i * width + j]) + current[j] + right;
+      int new_color = old_color > 128 ? 255 : 0;
+      int error = old_color - new_color;
+      right = 0;
+
+      if (j + 1 < width) {
+        right = (int) Math.round(7 * error / 16.0);
+      }
+
+      if (i + 1 < height) {
+        below[j] += (int) Math.round(5 * error / 16.0);
+
+        if (j - 1 >= 0) {
+          below[j - 1] += (int) Math.round(3 * error / 16.0);
+        }
+
+        if (j + 1 < width) {
+          below[j + 1] += (int) Math.round(error / 16.0);
+        }
+      }
+
+      output[i * width + j] = Image.pack(new_color, new_color, new_color);
+
+      if (progress != null && ((j & (PROGRESS_STEP - 1)) == PROGRESS_STEP - 1 || j == width - 1)) {
+        progress.set(i % progress.length(), (long) i * (width + 1) + j + 1);
+      }
+    }
   }
 }
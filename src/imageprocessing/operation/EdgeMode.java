@@ -0,0 +1,41 @@
+package imageprocessing.operation;
+
+/**
+ * This class represents how an image filtering operation treats the pixels outside the image, when
+ * its kernel reaches over the edge. It can be zero (the pixels outside count as 0), clamp (they
+ * repeat the nearest edge pixel), mirror (they reflect the image about its edge pixel, e.g. -1
+ * becomes 1) or wrap (they come from the opposite edge of the image).
+ */
+public enum EdgeMode {
+  ZERO, CLAMP, MIRROR, WRAP;
+
+  /**
+   * Return the position inside the image that the given position along one dimension of the image
+   * stands for, or -1 if it stands for a 0 pixel.
+   *
+   * @param k the position along the dimension, possibly outside the image
+   * @param n the size of the image along the dimension
+   * @return the position inside the image that the given position stands for, or -1 for 0
+   */
+  int index(int k, int n) {
+    if (0 <= k && k < n) {
+      return k;
+    }
+
+    switch (this) {
+      case CLAMP:
+        return k < 0 ? 0 : n - 1;
+      case MIRROR:
+        if (n == 1) {
+          return 0;
+        }
+        int period = 2 * (n - 1);
+        int m = Math.floorMod(k, period);
+        return m < n ? m : period - m;
+      case WRAP:
+        return Math.floorMod(k, n);
+      default:
+        return -1;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package imageprocessing.operation;
+
+/**
+ * This class contains the fixed-point integer arithmetic mode of the image filtering and color
+ * transformation operations. In this mode, the weights of a kernel or color transformation matrix
+ * are scaled by 2^{@value #SHIFT} and rounded to integers once, when the operation is applied,
+ * so that every channel is computed with integer multiply-accumulate and a shift instead of double
+ * arithmetic. Weights that are multiples of 2^-{@value #SHIFT} (like those of blur and sharpen)
+ * give the same result as the double arithmetic; other weights may give a result that differs by
+ * 1. The mode is off by default.
+ */
+public final class FixedPoint {
+  /**
+   * The number of fractional bits of the fixed-point weights.
+   */
+  static final int SHIFT = 14;
+
+  /**
+   * The value added to a fixed-point sum before shifting, to round it to the nearest integer with
+   * halves up like {@link Math#round(double)}.
+   */
+  static final int HALF = 1 << (SHIFT - 1);
+
+  private static volatile boolean enabled = false;
+
+  private FixedPoint() {
+  }
+
+  /**
+   * Turn the fixed-point integer arithmetic mode on or off.
+   *
+   * @param on true to turn the mode on, false to turn it off
+   */
+  public static void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  /**
+   * Return true if the fixed-point integer arithmetic mode is on, false otherwise.
+   *
+   * @return true if the mode is on, false otherwise
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Convert the given weights to fixed-point integers, or return null if they cannot be applied to
+   * 8-bit channels without overflowing an integer, in which case the operation keeps the double
+   * arithmetic.
+   *
+   * @param weights the weights of a kernel or color transformation matrix
+   * @return the weights scaled by 2^{@value #SHIFT} and rounded, or null
+   */
+  static int[][] toFixed(double[][] weights) {
+    int[][] fixed = new int[weights.length][];
+    long bound = HALF;
+
+    for (int u = 0; u < weights.length; u++) {
+      fixed[u] = new int[weights[u].length];
+
+      for (int v = 0; v < weights[u].length; v++) {
+        long w = Math.round(weights[u][v] * (1 << SHIFT));
+        bound += Math.abs(w) * 255;
+
+        if (bound > Integer.MAX_VALUE) {
+          return null;
+        }
+        fixed[u][v] = (int) w;
+      }
+    }
+
+    return fixed;
+  }
+
+  /**
+   * Round the given fixed-point sum to an integer channel value, and clamp it to 8 bits.
+   *
+   * @param sum the fixed-point sum
+   * @return the channel value
+   */
+  static int toChannel(int sum) {
+    return AbstractImageProcessing.clamp((sum + HALF) >> SHIFT);
+  }
+}
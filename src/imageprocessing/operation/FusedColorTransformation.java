@@ -0,0 +1,113 @@
+package imageprocessing.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a run of consecutive color transformation operations applied to an image
+ * in one pass. It offers all the methods mandated by the {@link ImageProcessing} interface. By
+ * default the fusion is exact: the pixels are taken through every transformation in turn, rounded
+ * and clamped after each of them as if they were applied one by one, but a chunk of pixels at a
+ * time, so that the image is read and written once and no intermediate image is allocated. In the
+ * fast mode, the matrices are multiplied into one matrix and applied once, skipping the rounding
+ * and clamping between them, so the result may differ from applying them one by one (by 1 where
+ * rounding differs, or more where an intermediate channel value would have been clamped).
+ */
+public class FusedColorTransformation extends AbstractImageProcessing {
+  private static final int CHUNK = 4096;
+  private final List<ColorTransformation> transformations;
+  private final boolean fast;
+
+  /**
+   * Construct a fused color transformation object with the given image, the color transformations
+   * to be applied to it in order and whether the fast mode is allowed. The images the given
+   * transformations were constructed with are not used.
+   *
+   * @param img             the image to which the color transformations are to be applied
+   * @param transformations the color transformations in the order they are to be applied
+   * @param fast            true to multiply the matrices into one, false to fuse them exactly
+   * @throws IllegalArgumentException if the given image is null, or there is no transformation
+   */
+  public FusedColorTransformation(Image img, List<ColorTransformation> transformations,
+                                  boolean fast) throws IllegalArgumentException {
+    super(img);
+
+    if (transformations == null || transformations.isEmpty()) {
+      throw new IllegalArgumentException("No color transformation to apply");
+    }
+
+    this.transformations = new ArrayList<>(transformations);
+    this.fast = fast;
+  }
+
+  @Override
+  public Image apply() {
+    List<double[][]> matrices = new ArrayList<>();
+
+    if (fast) {
+      double[][] product = transformations.get(0).transMatrix;
+      for (int k = 1; k < transformations.size(); k++) {
+        product = multiply(transformations.get(k).transMatrix, product);
+      }
+      matrices.add(product);
+    } else {
+      for (ColorTransformation transformation : transformations) {
+        matrices.add(transformation.transMatrix);
+      }
+    }
+
+    int stages = matrices.size();
+    int[][][] fixedMatrices = new int[stages][][];
+    ColorLookupTable[] tables = new ColorLookupTable[stages];
+
+    for (int k = 0; k < stages; k++) {
+      fixedMatrices[k] = FixedPoint.isEnabled() ? FixedPoint.toFixed(matrices.get(k)) : null;
+      tables[k] = fixedMatrices[k] == null ? ColorLookupTable.of(matrices.get(k)) : null;
+    }
+
+    int height = img.getHeight();
+    int width = img.getWidth();
+    int[] pixels = img.pixelArray();
+    int[] output = new int[height * width];
+
+    ParallelExecutor.forEachBand(height, (start, end) -> {
+      for (int from = start * width; from < end * width; from += CHUNK) {
+        int to = Math.min(from + CHUNK, end * width);
+
+        // the first transformation reads the image, the others transform the chunk in place
+        for (int k = 0; k < stages; k++) {
+          int[] input = k == 0 ? pixels : output;
+          if (fixedMatrices[k] != null) {
+            KernelBackend.SELECTED.transformFixed(input, fixedMatrices[k], from, to, output);
+          } else {
+            tables[k].transform(input, from, to, output);
+          }
+        }
+      }
+    });
+
+    return Image.wrap(height, width, output);
+  }
+
+  /**
+   * Multiply the given 3x3 matrices, so that the product applied to a color is the same as the
+   * right one applied first and the left one applied next.
+   *
+   * @param left  the matrix applied next
+   * @param right the matrix applied first
+   * @return the product of the matrices
+   */
+  private static double[][] multiply(double[][] left, double[][] right) {
+    double[][] product = new double[3][3];
+
+    for (int u = 0; u < 3; u++) {
+      for (int v = 0; v < 3; v++) {
+        for (int m = 0; m < 3; m++) {
+          product[u][v] += left[u][m] * right[m][v];
+        }
+      }
+    }
+
+    return product;
+  }
+}
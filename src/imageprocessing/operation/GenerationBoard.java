@@ -6,6 +6,8 @@ package imageprocessing.operation;
  * board to be generated. The board consists of squares of alternating black and white color.
  */
 public class GenerationBoard extends AbstractImageGeneration {
+  private static final int WHITE = Image.pack(255, 255, 255);
+  private static final int BLACK = Image.pack(0, 0, 0);
   private int size;
 
   /**
@@ -29,9 +31,10 @@ public class GenerationBoard extends AbstractImageGeneration {
   }
 
   @Override
-  protected int[] color(int i, int j) {
-    int[] white = new int[]{255, 255, 255};
-    int[] black = new int[]{0, 0, 0};
-    return (i / size + j / size) % 2 == 0 ? white : black;
+  protected void fillRow(int i, int[] pixels, int offset) {
+    for (int from = 0; from < width; from += size) {
+      int color = (i / size + from / size) % 2 == 0 ? WHITE : BLACK;
+      fillRun(pixels, offset, from, from + size, color);
+    }
   }
 }
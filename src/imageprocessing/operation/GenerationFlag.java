@@ -34,6 +34,5 @@ public abstract class GenerationFlag extends AbstractImageGeneration {
     } else {
       this.width = width;
     }
-    this.rgb = new int[height][this.width][3];
   }
 }
@@ -5,6 +5,9 @@ package imageprocessing.operation;
  * methods mandated by the {@link ImageProcessing} interface. The ration of the flag is 1.
  */
 public class GenerationFlagCH extends GenerationFlag {
+  private static final int RED = Image.pack(213, 43, 30);
+  private static final int WHITE = Image.pack(255, 255, 255);
+
   /**
    * Construct a Switzerland flag generation object with the given height and width of the
    * Switzerland flag to be generated.
@@ -18,15 +21,16 @@ public class GenerationFlagCH extends GenerationFlag {
   }
 
   @Override
-  protected int[] color(int i, int j) {
-    int[] red = new int[]{213, 43, 30};
-    int[] white = new int[]{255, 255, 255};
+  protected void fillRow(int i, int[] pixels, int offset) {
     int unit = height / 32;
-    if ((6 * unit < i && i < 26 * unit && 13 * unit < j && j < 19 * unit)
-            || (6 * unit < j && j < 26 * unit && 13 * unit < i && i < 19 * unit)) {
-      return white;
-    } else {
-      return red;
+    fillRun(pixels, offset, 0, width, RED);
+
+    if (13 * unit < i && i < 19 * unit) {
+      // the horizontal bar of the cross
+      fillRun(pixels, offset, 6 * unit + 1, 26 * unit, WHITE);
+    } else if (6 * unit < i && i < 26 * unit) {
+      // the vertical bar of the cross
+      fillRun(pixels, offset, 13 * unit + 1, 19 * unit, WHITE);
     }
   }
 }
@@ -5,6 +5,10 @@ package imageprocessing.operation;
  * mandated by the {@link ImageProcessing} interface. The ration of the flag is 1.5.
  */
 public class GenerationFlagFR extends GenerationFlag {
+  private static final int RED = Image.pack(239, 65, 53);
+  private static final int WHITE = Image.pack(255, 255, 255);
+  private static final int BLUE = Image.pack(0, 85, 164);
+
   /**
    * Construct a France flag generation object with the given height and width of the France flag to
    * be generated.
@@ -18,16 +22,9 @@ public class GenerationFlagFR extends GenerationFlag {
   }
 
   @Override
-  protected int[] color(int i, int j) {
-    int[] red = new int[]{239, 65, 53};
-    int[] white = new int[]{255, 255, 255};
-    int[] blue = new int[]{0, 85, 164};
-    if (j < width / 3) {
-      return blue;
-    } else if (j < width / 3 * 2) {
-      return white;
-    } else {
-      return red;
-    }
+  protected void fillRow(int i, int[] pixels, int offset) {
+    fillRun(pixels, offset, 0, width / 3, BLUE);
+    fillRun(pixels, offset, width / 3, width / 3 * 2, WHITE);
+    fillRun(pixels, offset, width / 3 * 2, width, RED);
   }
 }
@@ -5,6 +5,9 @@ package imageprocessing.operation;
  * mandated by the {@link ImageProcessing} interface. The ration of the flag is 1.5.
  */
 public class GenerationFlagGR extends GenerationFlag {
+  private static final int WHITE = Image.pack(255, 255, 255);
+  private static final int BLUE = Image.pack(13, 94, 175);
+
   /**
    * Construct a Greece flag generation object with the given height and width of the Greece flag to
    * be generated.
@@ -18,22 +21,20 @@ public class GenerationFlagGR extends GenerationFlag {
   }
 
   @Override
-  protected int[] color(int i, int j) {
+  protected void fillRow(int i, int[] pixels, int offset) {
     int stripe = height / 9;
     int size = stripe * 5;
-    int[] white = new int[]{255, 255, 255};
-    int[] blue = new int[]{13, 94, 175};
 
-    if (i < size && j < size) {
-      // this is in up-left cross
-      if (i / stripe == 2 || j / stripe == 2) {
-        return white;
+    // the stripes, then the up-left cross over them
+    fillRun(pixels, offset, 0, width, i / stripe % 2 == 0 ? BLUE : WHITE);
+
+    if (i < size) {
+      if (i / stripe == 2) {
+        fillRun(pixels, offset, 0, size, WHITE);
       } else {
-        return blue;
+        fillRun(pixels, offset, 0, size, BLUE);
+        fillRun(pixels, offset, 2 * stripe, 3 * stripe, WHITE);
       }
-    } else {
-      // now only stripes left
-      return (i / stripe % 2 == 0) ? blue : white;
     }
   }
 }
@@ -26,48 +26,46 @@ public class GenerationRainbow extends AbstractImageGeneration {
   }
 
   @Override
-  protected int[] color(int i, int j) {
+  protected void fillRow(int i, int[] pixels, int offset) {
     int stripe;
     if (direction == PatternDirection.HORIZONTAL) {
       stripe = (int) Math.round(height / 7.0);
-      return rainbowColor(i / stripe + 1);
+      fillRun(pixels, offset, 0, width, rainbowColor(i / stripe + 1));
     } else {
       stripe = (int) Math.round(width / 7.0);
-      return rainbowColor(j / stripe + 1);
+      // every stripe is a run, the last one up to the right edge
+      for (int from = 0; from < width; ) {
+        int k = from / stripe + 1;
+        int to = k < 7 ? k * stripe : width;
+        fillRun(pixels, offset, from, to, rainbowColor(k));
+        from = to;
+      }
     }
   }
 
   /**
-   * Return as an array the RGB values of the pixel at (i, j) of the image to be generated. The
-   * order of the values in the array is red, green and blue.
+   * Return the packed RGB values (0xRRGGBB) of the given stripe of the rainbow, from 1 (red) to 7
+   * (violet). Any stripe after the seventh is violet too.
    *
-   * @param i the position of the pixel
-   * @return the RGB values of the pixel at the given position as an array
+   * @param k the position of the stripe
+   * @return the packed RGB values of the stripe
    */
-  private int[] rainbowColor(int i) {
-    int[] color;
-    switch (i) {
+  private static int rainbowColor(int k) {
+    switch (k) {
       case 1:
-        color = new int[]{255, 0, 0};
-        break;
+        return Image.pack(255, 0, 0);
       case 2:
-        color = new int[]{255, 127, 0};
-        break;
+        return Image.pack(255, 127, 0);
       case 3:
-        color = new int[]{255, 255, 0};
-        break;
+        return Image.pack(255, 255, 0);
       case 4:
-        color = new int[]{0, 255, 0};
-        break;
+        return Image.pack(0, 255, 0);
       case 5:
-        color = new int[]{0, 0, 255};
-        break;
+        return Image.pack(0, 0, 255);
       case 6:
-        color = new int[]{75, 0, 130};
-        break;
+        return Image.pack(75, 0, 130);
       default:
-        color = new int[]{148, 0, 211};
+        return Image.pack(148, 0, 211);
     }
-    return color;
   }
 }
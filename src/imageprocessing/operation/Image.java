@@ -1,14 +1,20 @@
 package imageprocessing.operation;
 
+import java.nio.IntBuffer;
+
 /**
- * This class represents a 24-bit image (3 8-bit channels–red, green, blue). It contains the RGB
- * matrix of this image (the image data as a 3D array of integers with rows=height, columns=width
- * and depth=3). With 8-bit channels, each value is between 0 and 255. For example, the red, green,
- * blue channel of the pixel at (5, 4) of this image is represented by rgb[5][4][0], rgb[5][4][1],
- * rgb[5][4][2] respectively.
+ * This class represents a 24-bit image (3 8-bit channels–red, green, blue). It stores the image
+ * data as a single contiguous array of integers in row-major order, one integer per pixel, with
+ * the three 8-bit channels packed as 0xRRGGBB. With 8-bit channels, each value is between 0 and
+ * 255. For example, the red, green, blue channel of the pixel at (5, 4) of this image are bits
+ * 16-23, 8-15 and 0-7 of the element at index 5 * width + 4 respectively. An image is immutable,
+ * so its pixels can be read through {@link #getPixels()} without copying them. As a {@link
+ * PixelSource}, it is its own image.
  */
-public class Image {
-  private int[][][] rgb;
+public class Image implements PixelSource {
+  private final int height;
+  private final int width;
+  private final int[] pixels;
 
   /**
    * Construct an image object with the given RGB matrix.
@@ -25,38 +31,195 @@ public class Image {
       throw new IllegalArgumentException("The RGB values should be 0-255");
     }
 
-    this.rgb = rgb;
+    this.height = rgb.length;
+    this.width = rgb[0].length;
+    this.pixels = new int[height * width];
+
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        pixels[i * width + j] = pack(rgb[i][j][0], rgb[i][j][1], rgb[i][j][2]);
+      }
+    }
+  }
+
+  /**
+   * Construct an image object with the given height, width and packed pixels. The pixels are in
+   * row-major order, each of them holding its red, green and blue values as 0xRRGGBB. The given
+   * array is copied, so modifying it afterwards does not change this image.
+   *
+   * @param height the height of this image
+   * @param width  the width of this image
+   * @param pixels the packed pixels of this image in row-major order
+   * @throws IllegalArgumentException if the given pixel array is null, the given size is not
+   *                                  positive or does not match the length of the array, or any
+   *                                  pixel has bits set above its 24 bits of color
+   */
+  public Image(int height, int width, int[] pixels) throws IllegalArgumentException {
+    this(height, width, pixels == null ? null : pixels.clone(), true);
+  }
+
+  /**
+   * Create an image with the given height, width and packed pixels, taking ownership of the given
+   * array. Unlike {@link #Image(int, int, int[])}, the array is neither copied nor scanned: it is
+   * used as the storage of the image, so the caller must not modify it afterwards, and must make
+   * sure that every pixel is within 0xFFFFFF. This is for code that builds a fresh array of valid
+   * pixels outside this package, e.g. when reading an image file.
+   *
+   * @param height the height of the image
+   * @param width  the width of the image
+   * @param pixels the packed pixels of the image in row-major order, each within 0xFFFFFF
+   * @return the image with the given pixels
+   * @throws IllegalArgumentException if the given pixel array is null, or the given size is not
+   *                                  positive or does not match the length of the array
+   */
+  public static Image ofOwned(int height, int width, int[] pixels)
+          throws IllegalArgumentException {
+    if (pixels == null) {
+      throw new IllegalArgumentException("The pixel array is null");
+    }
+    if (height <= 0 || width <= 0 || (long) height * width != pixels.length) {
+      throw new IllegalArgumentException("Not a valid image size");
+    }
+
+    return new Image(height, width, pixels, false);
+  }
+
+  /**
+   * Construct an image object with the given height, width and packed pixels, validating them
+   * only if asked to.
+   *
+   * @param height   the height of this image
+   * @param width    the width of this image
+   * @param pixels   the packed pixels of this image in row-major order
+   * @param validate whether to validate the given pixels
+   * @throws IllegalArgumentException if validating, and the given pixels are not valid
+   */
+  private Image(int height, int width, int[] pixels, boolean validate)
+          throws IllegalArgumentException {
+    if (validate) {
+      if (pixels == null) {
+        throw new IllegalArgumentException("The pixel array is null");
+      }
+      if (height <= 0 || width <= 0 || (long) height * width != pixels.length) {
+        throw new IllegalArgumentException("Not a valid image size");
+      }
+      for (int p : pixels) {
+        if ((p & ~0xFFFFFF) != 0) {
+          throw new IllegalArgumentException("The RGB values should be 0-255");
+        }
+      }
+    }
+
+    this.height = height;
+    this.width = width;
+    this.pixels = pixels;
+  }
+
+  /**
+   * Create an image with the given height, width and packed pixels without validating them. This
+   * is for the operations in this package whose output is valid by construction (e.g. clamped
+   * while it is written, or made of known colors), so that the output is not scanned again. The
+   * given array is used as the storage of the image, and must not be modified afterwards.
+   *
+   * @param height the height of the image, matching the length of the array
+   * @param width  the width of the image, matching the length of the array
+   * @param pixels the packed pixels of the image in row-major order, each within 0xFFFFFF
+   * @return the image with the given pixels
+   */
+  static Image wrap(int height, int width, int[] pixels) {
+    return new Image(height, width, pixels, false);
   }
 
   /**
    * Return the RGB matrix of this image as a 3D array of integers whose dimensions are row, col and
-   * channel respectively.
+   * channel respectively. This is a full copy of the image, kept for compatibility with code using
+   * the matrix form; prefer {@link #getPixels()} or {@link #getPixel(int, int)} for reading pixels.
    *
    * @return the RGB matrix of this image
    */
   public int[][][] getRGB() {
-    int h = getHeight();
-    int w = getWidth();
-    int[][][] rgb = new int[h][w][3];
+    int[][][] rgb = new int[height][width][3];
 
-    for (int i = 0; i < h; i++) {
-      for (int j = 0; j < w; j++) {
-        for (int m = 0; m < 3; m++) {
-          rgb[i][j][m] = this.rgb[i][j][m];
-        }
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int p = pixels[i * width + j];
+        rgb[i][j][0] = red(p);
+        rgb[i][j][1] = green(p);
+        rgb[i][j][2] = blue(p);
       }
     }
 
     return rgb;
   }
 
+  /**
+   * Return a read-only view of the packed pixels (0xRRGGBB) of this image in row-major order. The
+   * view shares the storage of this image, so no pixel is copied, and any attempt to write to it
+   * throws {@link java.nio.ReadOnlyBufferException}.
+   *
+   * @return a read-only view of the pixels of this image
+   */
+  public IntBuffer getPixels() {
+    return IntBuffer.wrap(pixels).asReadOnlyBuffer();
+  }
+
+  /**
+   * Return the packed RGB values (0xRRGGBB) of the pixel at (i, j) of this image.
+   *
+   * @param i the row position of the pixel
+   * @param j the column position of the pixel
+   * @return the packed RGB values of the pixel at (i, j)
+   * @throws IndexOutOfBoundsException if (i, j) is outside this image
+   */
+  public int getPixel(int i, int j) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= height || j < 0 || j >= width) {
+      throw new IndexOutOfBoundsException("(" + i + ", " + j + ") is outside the image");
+    }
+
+    return pixels[i * width + j];
+  }
+
+  /**
+   * Return the value of the given channel (0 for red, 1 for green and 2 for blue) of the pixel at
+   * (i, j) of this image.
+   *
+   * @param i the row position of the pixel
+   * @param j the column position of the pixel
+   * @param m the channel of the pixel
+   * @return the value of the channel of the pixel at (i, j)
+   * @throws IndexOutOfBoundsException if (i, j) is outside this image, or the channel is not 0, 1
+   *                                   or 2
+   */
+  public int getChannel(int i, int j, int m) throws IndexOutOfBoundsException {
+    if (m < 0 || m > 2) {
+      throw new IndexOutOfBoundsException("Not a valid channel: " + m);
+    }
+
+    return (getPixel(i, j) >> (16 - 8 * m)) & 0xFF;
+  }
+
+  @Override
+  public void readRow(int i, int[] row, int offset) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= height) {
+      throw new IndexOutOfBoundsException("Row " + i + " is outside the image");
+    }
+
+    System.arraycopy(pixels, i * width, row, offset, width);
+  }
+
+  @Override
+  public Image toImage() {
+    return this;
+  }
+
   /**
    * Return the height of this image.
    *
    * @return the height of this image
    */
+  @Override
   public int getHeight() {
-    return rgb.length;
+    return height;
   }
 
   /**
@@ -64,8 +227,62 @@ public class Image {
    *
    * @return the width of this image
    */
+  @Override
   public int getWidth() {
-    return rgb[0].length;
+    return width;
+  }
+
+  /**
+   * Return the array storing the packed pixels of this image in row-major order. This is the
+   * zero-copy read path for the operations in this package, which must never write to it.
+   *
+   * @return the array storing the pixels of this image
+   */
+  int[] pixelArray() {
+    return pixels;
+  }
+
+  /**
+   * Pack the given red, green and blue values into one integer as 0xRRGGBB. Each value must be
+   * within the 0-255 range.
+   *
+   * @param r the red value
+   * @param g the green value
+   * @param b the blue value
+   * @return the packed RGB values
+   */
+  static int pack(int r, int g, int b) {
+    return (r << 16) | (g << 8) | b;
+  }
+
+  /**
+   * Return the red value of the given packed pixel.
+   *
+   * @param p the packed pixel
+   * @return the red value of the pixel
+   */
+  static int red(int p) {
+    return (p >> 16) & 0xFF;
+  }
+
+  /**
+   * Return the green value of the given packed pixel.
+   *
+   * @param p the packed pixel
+   * @return the green value of the pixel
+   */
+  static int green(int p) {
+    return (p >> 8) & 0xFF;
+  }
+
+  /**
+   * Return the blue value of the given packed pixel.
+   *
+   * @param p the packed pixel
+   * @return the blue value of the pixel
+   */
+  static int blue(int p) {
+    return p & 0xFF;
   }
 
   /**
@@ -3,20 +3,36 @@ package imageprocessing.operation;
 /**
  * This class represents the blurring operation on an image. It offers all the methods mandated by
  * the {@link ImageProcessing} interface. Blurring can be done by applying its filter to every
- * channel of every pixel of an image to produce the output image.
+ * channel of every pixel of an image to produce the output image. Its kernel is the outer product
+ * of [1/4, 1/2, 1/4] with itself, so it is declared as separable.
  */
 public class ImageBlurring extends ImageFiltering {
 
   /**
-   * Construct an image blurring object with the given image, and initialize its kernel.
+   * Construct an image blurring object with the given image, counting the pixels outside the image
+   * as 0, and initialize its kernel and the column and row vectors it is separated into.
    *
    * @param img the image to which this blurring operation is to be applied
    * @throws IllegalArgumentException if the image is null
    */
   public ImageBlurring(Image img) throws IllegalArgumentException {
-    super(img);
+    this(img, EdgeMode.ZERO);
+  }
+
+  /**
+   * Construct an image blurring object with the given image and edge mode, and initialize its
+   * kernel and the column and row vectors it is separated into.
+   *
+   * @param img      the image to which this blurring operation is to be applied
+   * @param edgeMode how the pixels outside the image are treated
+   * @throws IllegalArgumentException if the image is null
+   */
+  public ImageBlurring(Image img, EdgeMode edgeMode) throws IllegalArgumentException {
+    super(img, edgeMode);
     this.kernel = new double[][]{{0.0625, 0.125, 0.0625},
                                  {0.125, 0.25, 0.125},
                                  {0.0625, 0.125, 0.0625}};
+    this.columnKernel = new double[]{0.25, 0.5, 0.25};
+    this.rowKernel = new double[]{0.25, 0.5, 0.25};
   }
 }
@@ -8,13 +8,26 @@ package imageprocessing.operation;
 public class ImageSharpening extends ImageFiltering {
 
   /**
-   * Construct an image sharpening object with the given image, and initialize its kernel.
+   * Construct an image sharpening object with the given image, counting the pixels outside the
+   * image as 0, and initialize its kernel.
    *
    * @param img the image to which this sharpening operation is to be applied
    * @throws IllegalArgumentException if the image is null
    */
   public ImageSharpening(Image img) throws IllegalArgumentException {
-    super(img);
+    this(img, EdgeMode.ZERO);
+  }
+
+  /**
+   * Construct an image sharpening object with the given image and edge mode, and initialize its
+   * kernel.
+   *
+   * @param img      the image to which this sharpening operation is to be applied
+   * @param edgeMode how the pixels outside the image are treated
+   * @throws IllegalArgumentException if the image is null
+   */
+  public ImageSharpening(Image img, EdgeMode edgeMode) throws IllegalArgumentException {
+    super(img, edgeMode);
     this.kernel = new double[][]{{-0.125, -0.125, -0.125, -0.125, -0.125},
                                  {-0.125, 0.25, 0.25, 0.25, -0.125},
                                  {-0.125, 0.25, 1, 0.25, -0.125},
@@ -0,0 +1,71 @@
+package imageprocessing.operation;
+
+/**
+ * This interface represents a backend running the per-pixel arithmetic of the image filtering and
+ * color transformation operations: the interior of a convolution, in double or fixed-point integer
+ * arithmetic (see {@link FixedPoint}), and a fixed-point 3x3 color matrix (a color matrix in double
+ * arithmetic runs on its {@link ColorLookupTable} instead). The backend is selected once at
+ * startup: the SIMD backend built on the Java Vector API if its module (jdk.incubator.vector) is
+ * available, or the scalar backend otherwise (see {@link KernelBackends}). Setting the system
+ * property "imageprocessing.backend" to "scalar" forces the scalar backend.
+ */
+interface KernelBackend {
+  /**
+   * The backend selected at startup.
+   */
+  KernelBackend SELECTED = KernelBackends.select();
+
+  /**
+   * Return true if this backend runs the convolution with a kernel of the given dimension faster
+   * than the scalar backend does, false otherwise.
+   *
+   * @param dimOfKernel the dimension of the kernel
+   * @return true if this backend speeds up the convolution with the kernel, false otherwise
+   */
+  boolean accelerates(int dimOfKernel);
+
+  /**
+   * Apply the given kernel to the pixels of row i from the given start column (inclusive) to the
+   * given end column (exclusive), where the whole kernel is inside the image, and store the
+   * resulting pixels (rounded and clamped) in the given output.
+   *
+   * @param pixels the packed pixels of the image
+   * @param width  the width of the image
+   * @param kernel the kernel of the filter
+   * @param i      the row to be filtered
+   * @param start  the first column to be filtered
+   * @param end    the column after the last column to be filtered
+   * @param output the packed pixels of the resulting image
+   */
+  void filterInterior(int[] pixels, int width, double[][] kernel, int i, int start, int end,
+                      int[] output);
+
+  /**
+   * Apply the given fixed-point kernel (see {@link FixedPoint}) to the pixels of row i from the
+   * given start column (inclusive) to the given end column (exclusive), where the whole kernel is
+   * inside the image, and store the resulting pixels (rounded and clamped) in the given output.
+   *
+   * @param pixels the packed pixels of the image
+   * @param width  the width of the image
+   * @param kernel the fixed-point kernel of the filter
+   * @param i      the row to be filtered
+   * @param start  the first column to be filtered
+   * @param end    the column after the last column to be filtered
+   * @param output the packed pixels of the resulting image
+   */
+  void filterInteriorFixed(int[] pixels, int width, int[][] kernel, int i, int start, int end,
+                           int[] output);
+
+  /**
+   * Apply the given fixed-point color transformation matrix (see {@link FixedPoint}) to the pixels
+   * from the given start index (inclusive) to the given end index (exclusive), and store the
+   * resulting pixels (rounded and clamped) in the given output.
+   *
+   * @param pixels the packed pixels of the image
+   * @param matrix the fixed-point 3x3 color transformation matrix
+   * @param start  the index of the first pixel to be transformed
+   * @param end    the index after the last pixel to be transformed
+   * @param output the packed pixels of the resulting image
+   */
+  void transformFixed(int[] pixels, int[][] matrix, int start, int end, int[] output);
+}
@@ -0,0 +1,72 @@
+package imageprocessing.operation;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * This class contains the selection of the {@link KernelBackend} at startup. The SIMD backend is
+ * only loaded if the Vector API module (jdk.incubator.vector) is present, which is looked up
+ * through reflection, so that the program still builds and runs on Java 8, where there are no
+ * modules and the scalar backend is always used.
+ */
+final class KernelBackends {
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_BACKEND = "imageprocessing.operation.VectorBackend";
+
+  private KernelBackends() {
+  }
+
+  /**
+   * Select the backend for this run of the program: the SIMD backend if the Vector API module is
+   * available and the backend is not forced to scalar, or the scalar backend otherwise.
+   *
+   * @return the selected backend
+   */
+  static KernelBackend select() {
+    if (!"scalar".equals(System.getProperty("imageprocessing.backend"))) {
+      KernelBackend vector = vector();
+      if (vector != null) {
+        return vector;
+      }
+    }
+
+    return new ScalarBackend();
+  }
+
+  /**
+   * Return a new SIMD backend, or null if the Vector API module is not available or the SIMD
+   * backend is not built into this program.
+   *
+   * @return a new SIMD backend, or null if it is not available
+   */
+  static KernelBackend vector() {
+    if (!hasModule(VECTOR_MODULE)) {
+      return null;
+    }
+
+    try {
+      return (KernelBackend) Class.forName(VECTOR_BACKEND).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // the SIMD backend is not built into this program
+      return null;
+    }
+  }
+
+  /**
+   * Return true if the module of the given name is in the boot layer, false otherwise or if there
+   * are no modules (before Java 9).
+   *
+   * @param name the name of the module
+   * @return true if the module is in the boot layer, false otherwise
+   */
+  private static boolean hasModule(String name) {
+    try {
+      Class<?> layer = Class.forName("java.lang.ModuleLayer");
+      Object boot = layer.getMethod("boot").invoke(null);
+      Method findModule = layer.getMethod("findModule", String.class);
+      return ((Optional<?>) findModule.invoke(boot, name)).isPresent();
+    } catch (ReflectiveOperationException e) {
+      return false;
+    }
+  }
+}
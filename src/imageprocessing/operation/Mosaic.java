@@ -1,140 +1,236 @@
 package imageprocessing.operation;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Random;
 
 /**
  * This class represents the mosaic operation on a 24-bit image, and offers all the methods mandated
- * by the {@link ImageProcessing} interface. It contains the image to be processed, and the number
- * of seeds for the mosaic operation.
+ * by the {@link ImageProcessing} interface. It contains the image to be processed, the number of
+ * seeds for the mosaic operation, the seed of the random positions of the seeds, and the way the
+ * seed of every pixel is found (see {@link MosaicMode}), which is the mode set by {@link
+ * #setMode(MosaicMode)} unless one is given. The same image, number of seeds and random seed
+ * always give the same mosaic. Every pixel is labeled with its cluster in an array of integers,
+ * and the average colors of the clusters are summed and painted in linear passes over it, with no
+ * object per pixel. Each pass runs on bands of rows in parallel if more than one thread is allowed
+ * (see {@link ParallelExecutor}), with the same result on any number of threads.
  */
 public class Mosaic implements ImageProcessing {
+  private static volatile MosaicMode defaultMode = MosaicMode.NEAREST_SEED;
   private Image img;
   private int seeds;
+  private long randomSeed;
+  private MosaicMode mode;
 
   /**
    * Construct a mosaic operation, with the given image and number of seeds for the mosaic
-   * operation.
+   * operation, at random positions that differ from one operation to another.
    *
    * @param image    the image to create a mosaic version from
    * @param numSeeds the number of seeds for the mosaic operation
    * @throws IllegalArgumentException if the given number of seeds is not positive
    */
   public Mosaic(Image image, int numSeeds) throws IllegalArgumentException {
+    this(image, numSeeds, new Random().nextLong());
+  }
+
+  /**
+   * Construct a mosaic operation, with the given image, number of seeds for the mosaic operation
+   * and seed of their random positions.
+   *
+   * @param image      the image to create a mosaic version from
+   * @param numSeeds   the number of seeds for the mosaic operation
+   * @param randomSeed the seed of the random positions of the seeds
+   * @throws IllegalArgumentException if the given number of seeds is not positive
+   */
+  public Mosaic(Image image, int numSeeds, long randomSeed) throws IllegalArgumentException {
+    this(image, numSeeds, randomSeed, defaultMode);
+  }
+
+  /**
+   * Construct a mosaic operation, with the given image, number of seeds for the mosaic operation,
+   * seed of their random positions and way of finding the seed of every pixel.
+   *
+   * @param image      the image to create a mosaic version from
+   * @param numSeeds   the number of seeds for the mosaic operation
+   * @param randomSeed the seed of the random positions of the seeds
+   * @param mode       the way of finding the seed of every pixel
+   * @throws IllegalArgumentException if the given number of seeds is not positive
+   */
+  public Mosaic(Image image, int numSeeds, long randomSeed, MosaicMode mode)
+          throws IllegalArgumentException {
     if (numSeeds <= 0) {
       throw new IllegalArgumentException("Number of seeds must be positive");
     }
 
     this.img = image;
     this.seeds = numSeeds;
+    this.randomSeed = randomSeed;
+    this.mode = Objects.requireNonNull(mode, "The mosaic mode cannot be null");
+  }
+
+  /**
+   * Set the way of finding the seed of every pixel for the mosaic operations constructed without
+   * one. It is {@link MosaicMode#NEAREST_SEED} by default.
+   *
+   * @param mode the way of finding the seed of every pixel
+   */
+  public static void setMode(MosaicMode mode) {
+    defaultMode = Objects.requireNonNull(mode, "The mosaic mode cannot be null");
+  }
+
+  /**
+   * Return the way of finding the seed of every pixel for the mosaic operations constructed
+   * without one.
+   *
+   * @return the way of finding the seed of every pixel
+   */
+  public static MosaicMode getMode() {
+    return defaultMode;
   }
 
   @Override
   public Image apply() {
-    int[][][] rgb = img.getRGB();
+    int h = img.getHeight();
+    int w = img.getWidth();
 
     // generate random seeds
-    List<int[]> listSeeds = getSeeds(seeds);
+    int[] positions = getSeeds(h * w, seeds, randomSeed);
+    int n = positions.length;
+    int[] seedRows = new int[n];
+    int[] seedCols = new int[n];
+    for (int a = 0; a < n; ++a) {
+      seedRows[a] = positions[a] / w;
+      seedCols[a] = positions[a] % w;
+    }
 
-    // generate clusters
-    List<List<int[]>> listClusters = getCluster(listSeeds);
+    // label every pixel with its cluster, the index of its nearest seed
+    int[] labels = label(h, w, seedRows, seedCols, mode);
+    int[] colors = getAverageColors(labels, n);
 
-    // set points in clusters to avg color
-    for (List<int[]> cluster : listClusters) {
-      int[] avgColor = getAverageColor(cluster, rgb);
-      for (int[] point : cluster) {
-        rgb[point[0]][point[1]] = avgColor;
+    // set points in clusters to avg color, replacing the labels
+    ParallelExecutor.forEachBand(h, (start, end) -> {
+      for (int k = start * w; k < end * w; ++k) {
+        labels[k] = colors[labels[k]];
       }
-    }
+    });
 
-    return new Image(rgb);
+    return Image.wrap(h, w, labels);
   }
 
   /**
-   * Generate the seeds for the mosaic operation randomly, and return them as a list of integer
-   * arrays. The array contains the coordinates of a seed (the first element in the array is its ith
-   * position, and the second is its jth position, in the RGB matrix of the image).
+   * Generate the seeds for the mosaic operation randomly from the given random seed, and return
+   * their positions (i * width + j for the pixel at (i, j)). The positions are distinct, and there
+   * are as many as the given number, or one for every pixel if the image has fewer pixels. They
+   * are drawn without replacement by Floyd's algorithm, which draws one random number per seed.
    *
-   * @param num the number of seeds for the mosaic operation
-   * @return the seeds for the mosaic operation as a list of arrays
+   * @param total      the number of pixels of the image
+   * @param num        the number of seeds for the mosaic operation
+   * @param randomSeed the seed of the random positions of the seeds
+   * @return the positions of the seeds
    */
-  private List<int[]> getSeeds(int num) {
-    int h = img.getHeight();
-    int w = img.getWidth();
-    Set<int[]> seeds = new HashSet<>();
-
-    while (seeds.size() <= num) {
-      int x = (int) (Math.random() * h);
-      int y = (int) (Math.random() * w);
-      seeds.add(new int[]{x, y});
+  static int[] getSeeds(int total, int num, long randomSeed) {
+    int count = Math.min(num, total);
+    Random random = new Random(randomSeed);
+    BitSet chosen = new BitSet(total);
+    int[] positions = new int[count];
+
+    // draw t from 0 to k, and take k instead if t is taken, for every k of the last count positions
+    for (int k = total - count, a = 0; k < total; ++k, ++a) {
+      int t = random.nextInt(k + 1);
+      positions[a] = chosen.get(t) ? k : t;
+      chosen.set(positions[a]);
     }
 
-    return new ArrayList<>(seeds);
+    return positions;
   }
 
   /**
-   * Get the cluster of pixels for each seed in the given list.
+   * Return the index of the nearest seed of every pixel of an image of the given size, by
+   * Manhattan distance, the lowest index of them if several seeds are equally near, found in the
+   * given way.
    *
-   * @param listSeeds the list of seeds
-   * @return the cluster of pixels for each seed
+   * @param height   the height of the image
+   * @param width    the width of the image
+   * @param seedRows the row position of every seed
+   * @param seedCols the column position of every seed
+   * @param mode     the way of finding the nearest seed
+   * @return the index of the nearest seed of every pixel in row-major order
    */
-  private List<List<int[]>> getCluster(List<int[]> listSeeds) {
-    int h = img.getHeight();
-    int w = img.getWidth();
-
-    // init clusters
-    List<List<int[]>> listClusters = new ArrayList<>();
-    for (int a = 0; a < listSeeds.size(); ++a) {
-      listClusters.add(new ArrayList<>());
+  static int[] label(int height, int width, int[] seedRows, int[] seedCols, MosaicMode mode) {
+    if (mode == MosaicMode.DISTANCE_TRANSFORM) {
+      return DistanceTransform.label(height, width, seedRows, seedCols);
     }
 
-    for (int i = 0; i < h; ++i) {
-      for (int j = 0; j < w; ++j) {
-        // (i, j) is current point
-        List<Integer> distances = new ArrayList<>();
-
-        // store distances to seeds
-        for (int[] seed : listSeeds) {
-          distances.add(Math.abs(i - seed[0]) + Math.abs(j - seed[1]));
+    SeedGrid grid = new SeedGrid(height, width, seedRows, seedCols);
+    int[] labels = new int[height * width];
+    ParallelExecutor.forEachBand(height, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        for (int j = 0; j < width; j++) {
+          labels[i * width + j] = grid.nearest(i, j);
         }
-
-        // find nearest seed
-        int minIndex = distances.indexOf(Collections.min(distances));
-
-        // store the point in corresponding cluster
-        listClusters.get(minIndex).add(new int[]{i, j});
       }
-    }
+    });
 
-    return listClusters;
+    return labels;
   }
 
   /**
-   * Compute and return the average RGB values for each cluster of pixels.
+   * Compute and return the average RGB values of the pixels of each cluster, packed as 0xRRGGBB,
+   * given the cluster of every pixel. The channels of a cluster are summed in one pass over the
+   * image, so that no list of the pixels of a cluster is kept. If more than one thread is allowed
+   * (see {@link ParallelExecutor}), every thread sums a band of rows into sums of its own, which
+   * are added up at the end; as the sums are integers, the result is the same on any number of
+   * threads.
    *
-   * @param cluster the list of clusters
-   * @param rgb     the RGB matrix of the image
-   * @return the average RGB values for each cluster of pixels
+   * @param labels the cluster of every pixel in row-major order
+   * @param n      the number of clusters
+   * @return the average RGB values of the pixels of each cluster
    */
-  private static int[] getAverageColor(List<int[]> cluster, int[][][] rgb) {
-    double sumR = 0;
-    double sumG = 0;
-    double sumB = 0;
-    int n = cluster.size();
-
-    for (int[] point : cluster) {
-      sumR += rgb[point[0]][point[1]][0];
-      sumG += rgb[point[0]][point[1]][1];
-      sumB += rgb[point[0]][point[1]][2];
-    }
+  private int[] getAverageColors(int[] labels, int n) {
+    int h = img.getHeight();
+    int w = img.getWidth();
+    int[] pixels = img.pixelArray();
+    int parts = Math.min(ParallelExecutor.getThreads(), h);
+
+    // the sums of red, green and blue and the count of pixels of cluster c at 4c to 4c + 3
+    long[][] sums = new long[parts][];
+    ParallelExecutor.forEachThread(parts, t -> {
+      long[] sum = new long[4 * n];
+      int end = (t + 1) * h / parts * w;
+      for (int k = t * h / parts * w; k < end; ++k) {
+        int c = 4 * labels[k];
+        int p = pixels[k];
+        sum[c] += Image.red(p);
+        sum[c + 1] += Image.green(p);
+        sum[c + 2] += Image.blue(p);
+        sum[c + 3]++;
+      }
+      sums[t] = sum;
+    });
+
+    int[] colors = new int[n];
+    ParallelExecutor.forEachBand(n, (start, end) -> {
+      for (int c = start; c < end; ++c) {
+        long sumR = 0;
+        long sumG = 0;
+        long sumB = 0;
+        long count = 0;
+        for (long[] sum : sums) {
+          sumR += sum[4 * c];
+          sumG += sum[4 * c + 1];
+          sumB += sum[4 * c + 2];
+          count += sum[4 * c + 3];
+        }
 
-    int avgR = (int) Math.round(sumR / n);
-    int avgG = (int) Math.round(sumG / n);
-    int avgB = (int) Math.round(sumB / n);
+        // every cluster has at least its seed
+        int avgR = (int) Math.round((double) sumR / count);
+        int avgG = (int) Math.round((double) sumG / count);
+        int avgB = (int) Math.round((double) sumB / count);
+        colors[c] = Image.pack(avgR, avgG, avgB);
+      }
+    });
 
-    return new int[]{avgR, avgG, avgB};
+    return colors;
   }
 }
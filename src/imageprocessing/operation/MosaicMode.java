@@ -0,0 +1,12 @@
+package imageprocessing.operation;
+
+/**
+ * This class represents the way a mosaic operation finds the seed every pixel belongs to. It can be
+ * a search for the nearest seed of every pixel in an index of the seeds (see {@link SeedGrid}),
+ * whose cost grows slowly with the number of seeds, or a distance transform of the whole image
+ * (see {@link DistanceTransform}), whose cost does not depend on the number of seeds. Both give
+ * the same result.
+ */
+public enum MosaicMode {
+  NEAREST_SEED, DISTANCE_TRANSFORM
+}
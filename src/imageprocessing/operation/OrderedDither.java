@@ -0,0 +1,54 @@
+package imageprocessing.operation;
+
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This class represents the ordered dithering operation on a 24-bit image, and offers all the
+ * methods mandated by the {@link ImageProcessing} interface. It contains the image to be processed
+ * and the threshold matrix (see {@link ThresholdMatrix}) tiled over it: a pixel becomes white if
+ * its luminance (the value of its greyscale) is greater than the threshold at its position, or
+ * black otherwise. Unlike the error diffusion of {@link Dither}, every pixel is dithered on its
+ * own, so the image is processed as tiles in parallel if more than one thread is allowed (see
+ * {@link ParallelExecutor}), with the same result on any number of threads.
+ */
+public class OrderedDither extends AbstractImageProcessing {
+  private final ThresholdMatrix matrix;
+
+  /**
+   * Construct an ordered dithering object with the given image and threshold matrix.
+   *
+   * @param img    the image to be dithered
+   * @param matrix the threshold matrix tiled over the image
+   * @throws IllegalArgumentException if the given image is null
+   */
+  public OrderedDither(Image img, ThresholdMatrix matrix) throws IllegalArgumentException {
+    super(img);
+    this.matrix = Objects.requireNonNull(matrix, "The threshold matrix cannot be null");
+  }
+
+  @Override
+  public Image apply() {
+    int height = img.getHeight();
+    int width = img.getWidth();
+    int[] pixels = img.pixelArray();
+    int[] output = new int[height * width];
+    IntUnaryOperator luminance = new Greyscale(img).firstChannel();
+    int[] thresholds = matrix.thresholds();
+    int size = matrix.size();
+
+    ParallelExecutor.forEachTile(height, width, (top, left, bottom, right) -> {
+      for (int i = top; i < bottom; i++) {
+        int row = (i & (size - 1)) * size;
+
+        for (int j = left; j < right; j++) {
+          int k = i * width + j;
+          boolean white = luminance.applyAsInt(pixels[k]) > thresholds[row + (j & (size - 1))];
+          output[k] = white ? 0xFFFFFF : 0;
+        }
+      }
+    });
+
+    return Image.wrap(height, width, output);
+  }
+}
@@ -0,0 +1,233 @@
+package imageprocessing.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * This class contains the parallel execution mode shared by the image processing operations. It
+ * holds the number of threads the operations may use, and runs the work of an operation as bands
+ * of rows, or tiles, on a {@link ForkJoinPool} of that many threads. With one thread (the default),
+ * the work runs sequentially in the calling thread. Each band or tile writes only its own pixels of
+ * the output, so the result does not depend on the number of threads.
+ */
+public final class ParallelExecutor {
+  private static final int BANDS_PER_THREAD = 4;
+  private static final int TILE_SIZE = 256;
+  private static int threads = 1;
+  private static ForkJoinPool pool = null;
+
+  /**
+   * This interface represents the work of an operation on a band of rows.
+   */
+  interface RowBand {
+    /**
+     * Do the work on the rows from the given start row (inclusive) to the given end row
+     * (exclusive).
+     *
+     * @param start the first row of the band
+     * @param end   the row after the last row of the band
+     */
+    void run(int start, int end);
+  }
+
+  /**
+   * This interface represents the work of an operation on a rectangular tile of an image.
+   */
+  interface Tile {
+    /**
+     * Do the work on the pixels from the given top row (inclusive) to the given bottom row
+     * (exclusive), and from the given left column (inclusive) to the given right column
+     * (exclusive).
+     *
+     * @param top    the first row of the tile
+     * @param left   the first column of the tile
+     * @param bottom the row after the last row of the tile
+     * @param right  the column after the last column of the tile
+     */
+    void run(int top, int left, int bottom, int right);
+  }
+
+  private ParallelExecutor() {
+  }
+
+  /**
+   * Set the number of threads the image processing operations may use.
+   *
+   * @param n the number of threads
+   * @throws IllegalArgumentException if the given number is not positive
+   */
+  public static synchronized void setThreads(int n) throws IllegalArgumentException {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive");
+    }
+
+    if (pool != null) {
+      pool.shutdown();
+    }
+    threads = n;
+    pool = n > 1 ? new ForkJoinPool(n) : null;
+  }
+
+  /**
+   * Return the number of threads the image processing operations may use.
+   *
+   * @return the number of threads
+   */
+  public static synchronized int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Return the pool running the parallel work, or null if the operations run sequentially.
+   *
+   * @return the pool running the parallel work, or null
+   */
+  static synchronized ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Run the given work on every row from 0 to the given number of rows. The rows are split into
+   * bands that run in parallel if more than one thread is allowed, or all run at once in the
+   * calling thread otherwise.
+   *
+   * @param rows the number of rows
+   * @param band the work on a band of rows
+   */
+  static void forEachBand(int rows, RowBand band) {
+    ForkJoinPool current = getPool();
+
+    if (current == null || rows < 2) {
+      band.run(0, rows);
+      return;
+    }
+
+    int bands = Math.min(rows, current.getParallelism() * BANDS_PER_THREAD);
+    current.invoke(new RangeTask(b -> band.run((int) ((long) b * rows / bands),
+            (int) ((long) (b + 1) * rows / bands)), 0, bands));
+  }
+
+  /**
+   * Run the given work on every pixel of an image of the given size. The image is split into
+   * square tiles of {@value #TILE_SIZE} pixels a side (smaller at the right and bottom edges) that
+   * run in parallel if more than one thread is allowed, or is run as one tile in the calling thread
+   * otherwise.
+   *
+   * @param height the height of the image
+   * @param width  the width of the image
+   * @param tile   the work on a tile
+   */
+  static void forEachTile(int height, int width, Tile tile) {
+    ForkJoinPool current = getPool();
+    int down = (height + TILE_SIZE - 1) / TILE_SIZE;
+    int across = (width + TILE_SIZE - 1) / TILE_SIZE;
+
+    if (current == null || down * across < 2) {
+      tile.run(0, 0, height, width);
+      return;
+    }
+
+    current.invoke(new RangeTask(t -> {
+      int top = t / across * TILE_SIZE;
+      int left = t % across * TILE_SIZE;
+      tile.run(top, left, Math.min(top + TILE_SIZE, height), Math.min(left + TILE_SIZE, width));
+    }, 0, down * across));
+  }
+
+  /**
+   * Run the given work once for each of the given number of parts, with the index of the part from
+   * 0 to that number, each part on its own thread at the same time. Unlike the bands of {@link
+   * #forEachBand(int, RowBand)}, the parts may wait for each other (with {@link
+   * #awaitUntil(BooleanSupplier)}), so the number of parts must not exceed the number of threads.
+   *
+   * @param parts the number of parts, at most the number of threads
+   * @param part  the work on a part, given its index
+   * @throws IllegalArgumentException if the number of parts exceeds the number of threads
+   */
+  static void forEachThread(int parts, IntConsumer part) throws IllegalArgumentException {
+    ForkJoinPool current = getPool();
+
+    if (parts > (current == null ? 1 : current.getParallelism())) {
+      throw new IllegalArgumentException("More parts than threads");
+    }
+
+    if (current == null) {
+      part.accept(0);
+      return;
+    }
+
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int k = 0; k < parts; k++) {
+      int index = k;
+      tasks.add(ForkJoinTask.adapt(() -> part.accept(index)));
+    }
+    current.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+  }
+
+  /**
+   * Wait in a part of {@link #forEachThread(int, IntConsumer)} until the given condition holds,
+   * yielding to the other threads meanwhile. The pool is told the thread is blocked, so that an
+   * idle thread is woken (or a spare one started) to run the parts not yet started, rather than
+   * leaving them queued behind the waiting part.
+   *
+   * @param condition the condition to wait for
+   */
+  static void awaitUntil(BooleanSupplier condition) {
+    try {
+      ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+        @Override
+        public boolean block() {
+          Thread.yield();
+          return condition.getAsBoolean();
+        }
+
+        @Override
+        public boolean isReleasable() {
+          return condition.getAsBoolean();
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * This class represents a task running the given work for a range of indices (e.g. of the bands
+   * of rows or the tiles of an image), splitting the range in half until one index is left.
+   */
+  private static class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient IntConsumer work;
+    private final int from;
+    private final int to;
+
+    /**
+     * Construct a task running the given work for the indices from the given first index
+     * (inclusive) to the given last index (exclusive).
+     *
+     * @param work the work for an index
+     * @param from the first index of the task
+     * @param to   the index after the last index of the task
+     */
+    RangeTask(IntConsumer work, int from, int to) {
+      this.work = work;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        work.accept(from);
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(new RangeTask(work, from, mid), new RangeTask(work, mid, to));
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package imageprocessing.operation;
+
+/**
+ * This interface represents a source of the pixels of a 24-bit image, read a row at a time. It is
+ * either an image, whose rows are copied from its storage, or a generated image (see {@link
+ * AbstractImageGeneration}), whose rows are computed from its parameters as they are read, so that
+ * it can be written to a file with the memory of one row instead of the whole image.
+ */
+public interface PixelSource {
+  /**
+   * Return the height of the image.
+   *
+   * @return the height of the image
+   */
+  int getHeight();
+
+  /**
+   * Return the width of the image.
+   *
+   * @return the width of the image
+   */
+  int getWidth();
+
+  /**
+   * Store row i of the image as packed pixels (0xRRGGBB) in the given array, from the given offset
+   * on.
+   *
+   * @param i      the row position of the pixels
+   * @param row    the array to store the row in, with room for the width of the image
+   * @param offset the index of the first pixel of the row in the array
+   * @throws IndexOutOfBoundsException if the row is outside the image, or does not fit in the array
+   */
+  void readRow(int i, int[] row, int offset) throws IndexOutOfBoundsException;
+
+  /**
+   * Return the image of this source, with every pixel in memory.
+   *
+   * @return the image of this source
+   */
+  Image toImage();
+}
@@ -0,0 +1,92 @@
+package imageprocessing.operation;
+
+/**
+ * This class represents the scalar backend of the image filtering and color transformation
+ * operations, and offers all the methods mandated by the {@link KernelBackend} interface. It works
+ * on one channel of one pixel at a time, in double precision or fixed-point integers, and is always
+ * available.
+ */
+class ScalarBackend implements KernelBackend {
+
+  @Override
+  public boolean accelerates(int dimOfKernel) {
+    return false;
+  }
+
+  @Override
+  public void filterInterior(int[] pixels, int width, double[][] kernel, int i, int start,
+                             int end, int[] output) {
+    int dimOfKernel = kernel.length;
+    int half = (dimOfKernel - 1) / 2;
+
+    for (int j = start; j < end; j++) {
+      // Find leftmost position in input matrix to apply filter
+      int x = i - half;
+      int y = j - half;
+
+      double r = 0;
+      double g = 0;
+      double b = 0;
+
+      for (int u = 0; u < dimOfKernel; u++) {
+        double[] weights = kernel[u];
+        int first = (x + u) * width + y;
+
+        for (int v = 0; v < dimOfKernel; v++) {
+          int p = pixels[first + v];
+          r += Image.red(p) * weights[v];
+          g += Image.green(p) * weights[v];
+          b += Image.blue(p) * weights[v];
+        }
+      }
+
+      output[i * width + j] = AbstractImageProcessing.toPixel(r, g, b);
+    }
+  }
+
+  @Override
+  public void filterInteriorFixed(int[] pixels, int width, int[][] kernel, int i, int start,
+                                  int end, int[] output) {
+    int dimOfKernel = kernel.length;
+    int half = (dimOfKernel - 1) / 2;
+
+    for (int j = start; j < end; j++) {
+      int x = i - half;
+      int y = j - half;
+
+      int r = 0;
+      int g = 0;
+      int b = 0;
+
+      for (int u = 0; u < dimOfKernel; u++) {
+        int[] weights = kernel[u];
+        int first = (x + u) * width + y;
+
+        for (int v = 0; v < dimOfKernel; v++) {
+          int p = pixels[first + v];
+          r += Image.red(p) * weights[v];
+          g += Image.green(p) * weights[v];
+          b += Image.blue(p) * weights[v];
+        }
+      }
+
+      output[i * width + j] = Image.pack(FixedPoint.toChannel(r), FixedPoint.toChannel(g),
+              FixedPoint.toChannel(b));
+    }
+  }
+
+  @Override
+  public void transformFixed(int[] pixels, int[][] matrix, int start, int end, int[] output) {
+    for (int k = start; k < end; k++) {
+      int p = pixels[k];
+      int r = Image.red(p);
+      int g = Image.green(p);
+      int b = Image.blue(p);
+
+      output[k] = Image.pack(
+              FixedPoint.toChannel(matrix[0][0] * r + matrix[0][1] * g + matrix[0][2] * b),
+              FixedPoint.toChannel(matrix[1][0] * r + matrix[1][1] * g + matrix[1][2] * b),
+              FixedPoint.toChannel(matrix[2][0] * r + matrix[2][1] * g + matrix[2][2] * b));
+    }
+  }
+}
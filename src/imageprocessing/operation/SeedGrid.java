@@ -0,0 +1,114 @@
+package imageprocessing.operation;
+
+/**
+ * This class represents a spatial index of the seeds of a mosaic, for finding the nearest seed of a
+ * pixel by Manhattan distance. The image is divided into a uniform grid of square cells, about one
+ * seed per cell, and the seeds are bucketed by the cell they fall in. The nearest seed is searched
+ * in rings of cells around the cell of the pixel, from the inside out, and the search stops at the
+ * first ring that is too far to hold a nearer seed, so a query reads a few cells instead of every
+ * seed. Of the seeds at the same distance, the one of the lowest index is the nearest, like a
+ * linear search over the seeds in order would find.
+ */
+final class SeedGrid {
+  private final int[] seedRows;
+  private final int[] seedCols;
+  private final int cellSize;
+  private final int cellsDown;
+  private final int cellsAcross;
+  private final int[] cellStart;
+  private final int[] cellSeeds;
+
+  /**
+   * Construct the index of the given seeds of an image of the given size.
+   *
+   * @param height   the height of the image
+   * @param width    the width of the image
+   * @param seedRows the row position of every seed
+   * @param seedCols the column position of every seed
+   */
+  SeedGrid(int height, int width, int[] seedRows, int[] seedCols) {
+    int n = seedRows.length;
+    this.seedRows = seedRows;
+    this.seedCols = seedCols;
+    this.cellSize = Math.max(1, (int) Math.sqrt((double) height * width / n));
+    this.cellsDown = (height + cellSize - 1) / cellSize;
+    this.cellsAcross = (width + cellSize - 1) / cellSize;
+
+    // count the seeds of every cell, then place them in order of index (a counting sort)
+    this.cellStart = new int[cellsDown * cellsAcross + 1];
+    for (int s = 0; s < n; s++) {
+      cellStart[cellOf(s) + 1]++;
+    }
+    for (int c = 0; c < cellsDown * cellsAcross; c++) {
+      cellStart[c + 1] += cellStart[c];
+    }
+
+    this.cellSeeds = new int[n];
+    int[] next = new int[cellsDown * cellsAcross];
+    for (int s = 0; s < n; s++) {
+      int c = cellOf(s);
+      cellSeeds[cellStart[c] + next[c]++] = s;
+    }
+  }
+
+  /**
+   * Return the index of the seed nearest to the pixel at (i, j) by Manhattan distance, the lowest
+   * index of them if several seeds are equally near.
+   *
+   * @param i the row position of the pixel
+   * @param j the column position of the pixel
+   * @return the index of the nearest seed
+   */
+  int nearest(int i, int j) {
+    int ci = i / cellSize;
+    int cj = j / cellSize;
+    int farthest = Math.max(Math.max(ci, cellsDown - 1 - ci), Math.max(cj, cellsAcross - 1 - cj));
+    int best = -1;
+    int bestDistance = Integer.MAX_VALUE;
+
+    for (int r = 0; r <= farthest; r++) {
+      // every seed in ring r is at least (r - 1) * cellSize + 1 away
+      if (r > 0 && (r - 1) * cellSize + 1 > bestDistance) {
+        break;
+      }
+
+      for (int di = -r; di <= r; di++) {
+        int row = ci + di;
+        if (row < 0 || row >= cellsDown) {
+          continue;
+        }
+
+        // the top and bottom rows of the ring are whole, the others only have their two ends
+        int step = di == -r || di == r ? 1 : Math.max(1, 2 * r);
+        for (int dj = -r; dj <= r; dj += step) {
+          int col = cj + dj;
+          if (col < 0 || col >= cellsAcross) {
+            continue;
+          }
+
+          int c = row * cellsAcross + col;
+          for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+            int s = cellSeeds[k];
+            int distance = Math.abs(i - seedRows[s]) + Math.abs(j - seedCols[s]);
+            if (distance < bestDistance || (distance == bestDistance && s < best)) {
+              best = s;
+              bestDistance = distance;
+            }
+          }
+        }
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Return the cell the given seed falls in.
+   *
+   * @param s the index of the seed
+   * @return the cell of the seed, in row-major order
+   */
+  private int cellOf(int s) {
+    return seedRows[s] / cellSize * cellsAcross + seedCols[s] / cellSize;
+  }
+}
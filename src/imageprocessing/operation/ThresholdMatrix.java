@@ -0,0 +1,190 @@
+package imageprocessing.operation;
+
+import java.util.Random;
+
+/**
+ * This class represents the threshold matrix of an ordered dithering operation: a square matrix,
+ * tiled over the image, giving every pixel a threshold that its luminance is compared with. It can
+ * be a Bayer matrix of 2x2, 4x4 or 8x8 (a regular, cross-hatched pattern), or a 32x32 blue-noise
+ * matrix (an irregular pattern with no low-frequency structure), generated once by the
+ * void-and-cluster method from a fixed seed, so it is the same on every run.
+ */
+public enum ThresholdMatrix {
+  BAYER2(bayer(2)), BAYER4(bayer(4)), BAYER8(bayer(8)), BLUENOISE(blueNoise(32));
+
+  private static final double SIGMA = 1.5;
+  private static final long SEED = 0x5EED;
+  private final int size;
+  private final int[] thresholds;
+
+  /**
+   * Construct a threshold matrix from the given ranks of its cells, from 0 to the number of cells.
+   * Rank r stands for the threshold (r + 0.5) / (number of cells) of the 0-255 range, so that a
+   * pixel of luminance v becomes white at about v / 255 of the cells.
+   *
+   * @param ranks the ranks of the cells of the matrix in row-major order
+   */
+  ThresholdMatrix(int[] ranks) {
+    this.size = (int) Math.sqrt(ranks.length);
+    this.thresholds = new int[ranks.length];
+
+    // v > (2r + 1) * 255 / (2 * cells) is the same as v > floor of it, for an integer v
+    for (int k = 0; k < ranks.length; k++) {
+      thresholds[k] = (2 * ranks[k] + 1) * 255 / (2 * ranks.length);
+    }
+  }
+
+  /**
+   * Return the number of rows (and columns) of this matrix, a power of 2.
+   *
+   * @return the size of this matrix
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Return the thresholds of this matrix in row-major order. A pixel becomes white if its luminance
+   * is greater than its threshold. The returned array must not be modified.
+   *
+   * @return the thresholds of this matrix
+   */
+  int[] thresholds() {
+    return thresholds;
+  }
+
+  /**
+   * Return the ranks of the Bayer matrix of the given size, built recursively from the matrix of
+   * half its size M as [[4M, 4M + 2], [4M + 3, 4M + 1]].
+   *
+   * @param n the size of the matrix, a power of 2
+   * @return the ranks of the matrix in row-major order
+   */
+  private static int[] bayer(int n) {
+    int[] ranks = {0};
+
+    for (int m = 1; m < n; m *= 2) {
+      int[] next = new int[4 * m * m];
+      for (int i = 0; i < m; i++) {
+        for (int j = 0; j < m; j++) {
+          int r = 4 * ranks[i * m + j];
+          next[i * 2 * m + j] = r;
+          next[i * 2 * m + j + m] = r + 2;
+          next[(i + m) * 2 * m + j] = r + 3;
+          next[(i + m) * 2 * m + j + m] = r + 1;
+        }
+      }
+      ranks = next;
+    }
+
+    return ranks;
+  }
+
+  /**
+   * Return the ranks of a blue-noise matrix of the given size, by the void-and-cluster method. A
+   * binary pattern of a tenth of the cells is spread out evenly by moving its tightest cluster to
+   * its largest void, measured by a Gaussian filter wrapping around the matrix. The ones of the
+   * pattern are then ranked by removing the tightest cluster one at a time, and the zeros by
+   * filling the largest void one at a time.
+   *
+   * @param n the size of the matrix
+   * @return the ranks of the matrix in row-major order
+   */
+  private static int[] blueNoise(int n) {
+    int cells = n * n;
+    double[] gaussian = new double[cells];
+    for (int dy = 0; dy < n; dy++) {
+      for (int dx = 0; dx < n; dx++) {
+        int y = Math.min(dy, n - dy);
+        int x = Math.min(dx, n - dx);
+        gaussian[dy * n + dx] = StrictMath.exp(-(x * x + y * y) / (2 * SIGMA * SIGMA));
+      }
+    }
+
+    boolean[] pattern = new boolean[cells];
+    double[] energy = new double[cells];
+    Random random = new Random(SEED);
+    int ones = cells / 10;
+
+    for (int placed = 0; placed < ones; ) {
+      int k = random.nextInt(cells);
+      if (!pattern[k]) {
+        toggle(pattern, energy, gaussian, n, k);
+        placed++;
+      }
+    }
+
+    while (true) {
+      int cluster = find(pattern, energy, true);
+      toggle(pattern, energy, gaussian, n, cluster);
+      int gap = find(pattern, energy, false);
+      toggle(pattern, energy, gaussian, n, gap);
+      if (gap == cluster) {
+        break;
+      }
+    }
+
+    int[] ranks = new int[cells];
+    boolean[] removing = pattern.clone();
+    double[] removingEnergy = energy.clone();
+    for (int r = ones - 1; r >= 0; r--) {
+      int cluster = find(removing, removingEnergy, true);
+      toggle(removing, removingEnergy, gaussian, n, cluster);
+      ranks[cluster] = r;
+    }
+
+    for (int r = ones; r < cells; r++) {
+      int gap = find(pattern, energy, false);
+      toggle(pattern, energy, gaussian, n, gap);
+      ranks[gap] = r;
+    }
+
+    return ranks;
+  }
+
+  /**
+   * Flip the given cell of the given pattern, and update the energy of every cell accordingly.
+   *
+   * @param pattern  the binary pattern
+   * @param energy   the energy of every cell, the Gaussian-weighted count of ones around it
+   * @param gaussian the Gaussian weight of every offset, wrapping around the matrix
+   * @param n        the size of the matrix
+   * @param k        the cell to flip
+   */
+  private static void toggle(boolean[] pattern, double[] energy, double[] gaussian, int n, int k) {
+    pattern[k] = !pattern[k];
+    double sign = pattern[k] ? 1 : -1;
+    int ky = k / n;
+    int kx = k % n;
+
+    for (int y = 0; y < n; y++) {
+      for (int x = 0; x < n; x++) {
+        int dy = Math.floorMod(y - ky, n);
+        int dx = Math.floorMod(x - kx, n);
+        energy[y * n + x] += sign * gaussian[dy * n + dx];
+      }
+    }
+  }
+
+  /**
+   * Return the tightest cluster (the one of the highest energy) or the largest void (the zero of
+   * the lowest energy) of the given pattern, the first in row-major order on a tie.
+   *
+   * @param pattern the binary pattern
+   * @param energy  the energy of every cell
+   * @param cluster true to find the tightest cluster, false to find the largest void
+   * @return the cell of the tightest cluster or the largest void
+   */
+  private static int find(boolean[] pattern, double[] energy, boolean cluster) {
+    int best = -1;
+
+    for (int k = 0; k < pattern.length; k++) {
+      if (pattern[k] == cluster && (best < 0
+              || (cluster ? energy[k] > energy[best] : energy[k] < energy[best]))) {
+        best = k;
+      }
+    }
+
+    return best;
+  }
+}
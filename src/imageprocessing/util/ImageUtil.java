@@ -1,13 +1,16 @@
 package imageprocessing.util;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
 import javax.imageio.ImageIO;
 
+import imageprocessing.operation.Image;
+import imageprocessing.operation.PixelSource;
+
 /**
  * This class contains utility methods to read an image from file and write to a file.
  */
@@ -22,20 +25,30 @@ public class ImageUtil {
    * @throws IOException if the file is not found
    */
   public static int[][][] readImage(String filename) throws IOException {
-    BufferedImage input = ImageIO.read(new FileInputStream(filename));
+    return read(filename).getRGB();
+  }
 
-    int[][][] result = new int[input.getHeight()][input.getWidth()][3];
+  /**
+   * Read an image file and return the contents as an {@link Image} object, without going through
+   * the 3D array form.
+   *
+   * @param filename the path of the file. Look at the ImageIO documentation to see which file
+   *                 formats are supported.
+   * @return the image read from the file
+   * @throws IOException if the file is not found
+   */
+  public static Image read(String filename) throws IOException {
+    BufferedImage input = ImageIO.read(new FileInputStream(filename));
+    int height = input.getHeight();
+    int width = input.getWidth();
 
-    for (int i = 0; i < input.getHeight(); i++) {
-      for (int j = 0; j < input.getWidth(); j++) {
-        int color = input.getRGB(j, i);
-        Color c = new Color(color);
-        result[i][j][0] = c.getRed();
-        result[i][j][1] = c.getGreen();
-        result[i][j][2] = c.getBlue();
-      }
+    // pixels come as ARGB, so drop the alpha byte to keep the 24 bits of color
+    int[] pixels = input.getRGB(0, 0, width, height, null, 0, width);
+    for (int k = 0; k < pixels.length; k++) {
+      pixels[k] &= 0xFFFFFF;
     }
-    return result;
+
+    return Image.ofOwned(height, width, pixels);
   }
 
   /**
@@ -107,4 +120,48 @@ public class ImageUtil {
     String extension = filename.substring(filename.indexOf(".") + 1);
     ImageIO.write(output, extension, new FileOutputStream(filename));
   }
+
+  /**
+   * Write an image to a file in a given format, without going through the 3D array form.
+   *
+   * @param img      the image to be written
+   * @param filename the full path of where the image must be stored. This should include the name
+   *                 and extension of the file
+   * @throws IOException if the file cannot be written to the provided path
+   */
+  public static void write(Image img, String filename) throws IOException {
+    int height = img.getHeight();
+    int width = img.getWidth();
+    BufferedImage output = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+    // the raster of a TYPE_INT_RGB image stores pixels exactly as the image does (0xRRGGBB in
+    // row-major order), so copy them in bulk from the read-only view
+    img.getPixels().get(((DataBufferInt) output.getRaster().getDataBuffer()).getData());
+
+    String extension = filename.substring(filename.indexOf(".") + 1);
+    ImageIO.write(output, extension, new FileOutputStream(filename));
+  }
+
+  /**
+   * Write the image of the given source of pixels to a file in a given format, reading it a row at
+   * a time as the file is written, so that a generated image is never stored whole (most writers
+   * hold one row; some, like GIF, keep the whole image themselves). An {@link Image} is written
+   * with {@link #write(Image, String)}.
+   *
+   * @param source   the source of the pixels of the image to be written
+   * @param filename the full path of where the image must be stored. This should include the name
+   *                 and extension of the file
+   * @throws IOException if the file cannot be written to the provided path
+   */
+  public static void write(PixelSource source, String filename) throws IOException {
+    if (source instanceof Image) {
+      write((Image) source, filename);
+      return;
+    }
+
+    String extension = filename.substring(filename.indexOf(".") + 1);
+    try (FileOutputStream output = new FileOutputStream(filename)) {
+      ImageIO.write(new PixelSourceImage(source), extension, output);
+    }
+  }
 }
@@ -0,0 +1,211 @@
+package imageprocessing.util;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+
+import imageprocessing.operation.PixelSource;
+
+/**
+ * This class represents a {@link PixelSource} as a {@link RenderedImage}, so that it can be given
+ * to the {@link javax.imageio.ImageIO} writers without storing the whole image. The image is one
+ * tile, whose raster reads the pixels from the source a row at a time, as the writer reaches them,
+ * into a buffer of one row; the region a writer asks for with {@link #getData(Rectangle)} (e.g. a
+ * row for the PNG writer) is read from the source as well. Its pixels are stored like a {@link
+ * java.awt.image.BufferedImage#TYPE_INT_RGB} image. The raster is meant to be read by one writer at
+ * a time, in order of rows.
+ */
+class PixelSourceImage implements RenderedImage {
+  private static final int[] MASKS = {0xFF0000, 0xFF00, 0xFF};
+  private static final ColorModel COLOR_MODEL = new DirectColorModel(24, MASKS[0], MASKS[1],
+          MASKS[2]);
+  private final PixelSource source;
+  private final int height;
+  private final int width;
+  private final SampleModel sampleModel;
+
+  /**
+   * Construct a rendered image of the given source of pixels.
+   *
+   * @param source the source of the pixels
+   */
+  PixelSourceImage(PixelSource source) {
+    this.source = source;
+    this.height = source.getHeight();
+    this.width = source.getWidth();
+    this.sampleModel = COLOR_MODEL.createCompatibleSampleModel(width, height);
+  }
+
+  @Override
+  public Raster getTile(int tileX, int tileY) {
+    if (tileX != 0 || tileY != 0) {
+      throw new IllegalArgumentException("Not a valid tile: (" + tileX + ", " + tileY + ")");
+    }
+
+    return Raster.createRaster(sampleModel, new RowBuffer(), new Point(0, 0));
+  }
+
+  @Override
+  public Raster getData() {
+    return getTile(0, 0);
+  }
+
+  @Override
+  public Raster getData(Rectangle rect) {
+    Rectangle bounds = rect.intersection(new Rectangle(0, 0, width, height));
+    int[] pixels = new int[bounds.width * bounds.height];
+    int[] row = new int[width];
+
+    for (int i = bounds.y; i < bounds.y + bounds.height; i++) {
+      source.readRow(i, row, 0);
+      System.arraycopy(row, bounds.x, pixels, (i - bounds.y) * bounds.width, bounds.width);
+    }
+
+    return Raster.createPackedRaster(new DataBufferInt(pixels, pixels.length), bounds.width,
+            bounds.height, bounds.width, MASKS, new Point(bounds.x, bounds.y));
+  }
+
+  @Override
+  public WritableRaster copyData(WritableRaster raster) {
+    if (raster == null) {
+      raster = COLOR_MODEL.createCompatibleWritableRaster(width, height);
+    }
+
+    Rectangle bounds = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+    int[] row = new int[width];
+    int[] part = new int[bounds.width];
+
+    for (int i = bounds.y; i < bounds.y + bounds.height; i++) {
+      source.readRow(i, row, 0);
+      System.arraycopy(row, bounds.x, part, 0, bounds.width);
+      raster.setDataElements(bounds.x, i, bounds.width, 1, part);
+    }
+
+    return raster;
+  }
+
+  @Override
+  public Vector<RenderedImage> getSources() {
+    return null;
+  }
+
+  @Override
+  public Object getProperty(String name) {
+    return java.awt.Image.UndefinedProperty;
+  }
+
+  @Override
+  public String[] getPropertyNames() {
+    return null;
+  }
+
+  @Override
+  public ColorModel getColorModel() {
+    return COLOR_MODEL;
+  }
+
+  @Override
+  public SampleModel getSampleModel() {
+    return sampleModel;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int getMinX() {
+    return 0;
+  }
+
+  @Override
+  public int getMinY() {
+    return 0;
+  }
+
+  @Override
+  public int getNumXTiles() {
+    return 1;
+  }
+
+  @Override
+  public int getNumYTiles() {
+    return 1;
+  }
+
+  @Override
+  public int getMinTileX() {
+    return 0;
+  }
+
+  @Override
+  public int getMinTileY() {
+    return 0;
+  }
+
+  @Override
+  public int getTileWidth() {
+    return width;
+  }
+
+  @Override
+  public int getTileHeight() {
+    return height;
+  }
+
+  @Override
+  public int getTileGridXOffset() {
+    return 0;
+  }
+
+  @Override
+  public int getTileGridYOffset() {
+    return 0;
+  }
+
+  /**
+   * This class represents the storage of the raster of the image, read from the source a row at a
+   * time: reading a pixel of a row other than the last one read reads that row into the buffer.
+   * The pixels cannot be written.
+   */
+  private class RowBuffer extends DataBuffer {
+    private final int[] row = new int[width];
+    private int current = -1;
+
+    /**
+     * Construct the storage of the raster of the image, with no row read yet.
+     */
+    RowBuffer() {
+      super(DataBuffer.TYPE_INT, width * height);
+    }
+
+    @Override
+    public int getElem(int bank, int i) {
+      int r = i / width;
+      if (r != current) {
+        source.readRow(r, row, 0);
+        current = r;
+      }
+      return row[i - r * width];
+    }
+
+    @Override
+    public void setElem(int bank, int i, int val) {
+      throw new UnsupportedOperationException("The image cannot be written");
+    }
+  }
+}
@@ -31,6 +31,7 @@ import imageprocessing.controller.Features;
 import imageprocessing.model.CountryAlphaCode;
 import imageprocessing.model.ProcessingOperation;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.ThresholdMatrix;
 
 /**
  * This class represents a JFrame view for the image processing program using Java Swing, and offers
@@ -99,6 +100,7 @@ public class JFrameView extends JFrame implements ImageProcessingView, ActionLis
     // items under menu edit
     redo();
     undo();
+    history();
     script();
 
     // img
@@ -179,6 +181,15 @@ public class JFrameView extends JFrame implements ImageProcessingView, ActionLis
     menuEdit.add(itemUndo);
   }
 
+  /**
+   * Set up the history menu item.
+   */
+  private void history() {
+    JMenuItem itemHistory = new JMenuItem("History");
+    itemHistory.addActionListener(this);
+    menuEdit.add(itemHistory);
+  }
+
   /**
    * Set up the script menu item.
    */
@@ -192,7 +203,8 @@ public class JFrameView extends JFrame implements ImageProcessingView, ActionLis
    * Set up the image processing operation menu items.
    */
   private void createItemProcess() {
-    String[] items = {"Mosaic", "Blur", "Sharpen", "Sepia", "Greyscale", "Dither"};
+    String[] items = {"Mosaic", "Blur", "Sharpen", "Sepia", "Greyscale", "Dither",
+                      "Ordered Dither"};
 
     for (String item : items) {
       JMenuItem menuItem = new JMenuItem(item);
@@ -395,6 +407,12 @@ public class JFrameView extends JFrame implements ImageProcessingView, ActionLis
         break;
       }
 
+      case "History": {
+        JOptionPane.showMessageDialog(JFrameView.this, features.historyReport(), "History",
+                JOptionPane.INFORMATION_MESSAGE);
+        break;
+      }
+
       case "Mosaic": {
         int numSeeds = Integer.parseInt(JOptionPane.showInputDialog("Please enter "
                 + "number of seeds (e.g. 1000):"));
@@ -454,6 +472,22 @@ public class JFrameView extends JFrame implements ImageProcessingView, ActionLis
         break;
       }
 
+      case "Ordered Dither": {
+        Object matrix = JOptionPane.showInputDialog(this, "Please choose a threshold matrix:",
+                "Ordered Dither", JOptionPane.QUESTION_MESSAGE, null, ThresholdMatrix.values(),
+                ThresholdMatrix.BAYER8);
+        if (matrix == null) {
+          break;
+        }
+
+        try {
+          features.ditherOrdered((ThresholdMatrix) matrix);
+        } catch (IllegalStateException ise) {
+          errorMsgBox("Missing image: " + ise.getMessage());
+        }
+        break;
+      }
+
       case "Script": {
         JDialog inputDialog = new JDialog(this, "Script");
         JTextArea scriptText = new JTextArea(14, 20);
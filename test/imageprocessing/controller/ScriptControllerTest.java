@@ -12,6 +12,7 @@ import imageprocessing.model.ImgProcModel;
 import imageprocessing.model.ProcessingOperation;
 import imageprocessing.operation.Image;
 import imageprocessing.operation.PatternDirection;
+import imageprocessing.operation.ThresholdMatrix;
 import imageprocessing.util.ImageUtil;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -120,13 +121,10 @@ public class ScriptControllerTest {
    */
   @Test
   public void testBlur() throws IOException {
-    String script = "load res/img0.jpg\nblur\nsave res/test/img0-blur.png";
+    String script = "load res/img0.jpg\nblur";
     controller = new ScriptController(new StringReader(script), model);
     controller.run();
 
-    model.setImage(new Image(ImageUtil.readImage("res/img0.jpg")));
-    model.process(ProcessingOperation.BLUR);
-
     assertArrayEquals(model.getImageRGB(), ImageUtil.readImage("res/test/img0-blur.png"));
   }
 
@@ -155,15 +153,11 @@ public class ScriptControllerTest {
    */
   @Test
   public void testSharpen() throws IOException {
-    String script = "load res/img0.jpg\nsharpen\nsave res/test/img0-sharpen.png";
+    String script = "load res/img0.jpg\nsharpen";
     controller = new ScriptController(new StringReader(script), model);
     controller.run();
 
-    model.setImage(new Image(ImageUtil.readImage("res/img0.jpg")));
-    model.process(ProcessingOperation.SHARPEN);
-
-    assertArrayEquals(model.getImageRGB(),
-            ImageUtil.readImage("res/test/img0-sharpen.png"));
+    assertArrayEquals(model.getImageRGB(), ImageUtil.readImage("res/test/img0-sharpen.png"));
   }
 
   /**
@@ -183,6 +177,50 @@ public class ScriptControllerTest {
     assertArrayEquals(model.getImageRGB(), ImageUtil.readImage("res/test/img0-dither.png"));
   }
 
+  /**
+   * Test whether the ordered dither operation works correctly for the controller, with the default
+   * and every threshold matrix.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testDitherOrdered() throws IOException {
+    ImageProcessingModel expected = new ImgProcModel();
+    expected.setImage(ImageUtil.read("res/img0.jpg"));
+
+    controller = new ScriptController(new StringReader("load res/img0.jpg\ndither_ordered"), model);
+    controller.run();
+    expected.ditherOrdered(ThresholdMatrix.BAYER8);
+    assertArrayEquals(expected.getImageRGB(), model.getImageRGB());
+
+    for (ThresholdMatrix matrix : ThresholdMatrix.values()) {
+      String script = "load res/img0.jpg\ndither_ordered " + matrix.toString().toLowerCase();
+      controller = new ScriptController(new StringReader(script), model);
+      controller.run();
+      expected.undo();
+      expected.ditherOrdered(matrix);
+      assertArrayEquals(expected.getImageRGB(), model.getImageRGB());
+    }
+  }
+
+  /**
+   * Test whether the mosaic operation with a random seed works correctly for the controller, giving
+   * the same mosaic as the model with the same random seed.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testMosaicRandomSeed() throws IOException {
+    ImageProcessingModel expected = new ImgProcModel();
+    expected.setImage(ImageUtil.read("res/img0.jpg"));
+    expected.mosaic(500, -17);
+
+    controller = new ScriptController(new StringReader("load res/img0.jpg\nmosaic 500 -17"),
+            model);
+    controller.run();
+    assertArrayEquals(expected.getImageRGB(), model.getImageRGB());
+  }
+
   /**
    * Test whether the checker board generation works correctly for the controller.
    *
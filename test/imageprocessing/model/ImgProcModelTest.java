@@ -0,0 +1,420 @@
+package imageprocessing.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import imageprocessing.operation.Dither;
+import imageprocessing.operation.GenerationCheckerBoard;
+import imageprocessing.operation.GenerationFlagGR;
+import imageprocessing.operation.Greyscale;
+import imageprocessing.operation.Image;
+import imageprocessing.operation.ImageBlurring;
+import imageprocessing.operation.ImageSharpening;
+import imageprocessing.operation.Mosaic;
+import imageprocessing.operation.OrderedDither;
+import imageprocessing.operation.SepiaTone;
+import imageprocessing.operation.ThresholdMatrix;
+import imageprocessing.util.ImageUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This contains all the unit tests for the image processing model.
+ */
+public class ImgProcModelTest {
+  private Image img;
+
+  /**
+   * Read the image to be processed.
+   *
+   * @throws IOException if the image cannot be read
+   */
+  @Before
+  public void setUp() throws IOException {
+    img = ImageUtil.read("res/img0.jpg");
+  }
+
+  /**
+   * Test whether a run of consecutive color transformations gives the same image as applying them
+   * one by one, and whether every intermediate state can be undone and redone to.
+   */
+  @Test
+  public void testFusedColorTransformations() {
+    Image grey = new Greyscale(img).apply();
+    Image sepia = new SepiaTone(grey).apply();
+    Image sepia2 = new SepiaTone(sepia).apply();
+    Image blur = new ImageBlurring(sepia2).apply();
+
+    ImageProcessingModel model = new ImgProcModel();
+    model.setImage(img);
+    model.process(ProcessingOperation.GREYSCALE);
+    model.process(ProcessingOperation.SEPIATONE);
+    model.process(ProcessingOperation.SEPIATONE);
+    assertEquals(img.getHeight(), model.getImageHeight());
+    assertEquals(img.getWidth(), model.getImageWidth());
+    model.process(ProcessingOperation.BLUR);
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+
+    model.undo();
+    assertEquals(sepia2.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(sepia.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(grey.getPixels(), model.getImage().getPixels());
+    model.redo();
+    assertEquals(sepia.getPixels(), model.getImage().getPixels());
+
+    // a run continuing from a state that has been computed starts from its image
+    model.process(ProcessingOperation.GREYSCALE);
+    assertEquals(new Greyscale(sepia).apply().getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(sepia.getPixels(), model.getImage().getPixels());
+  }
+
+  /**
+   * Test whether the fast mode multiplies the matrices of a run into one, which does not round and
+   * clamp between them: the result is the product of the matrices applied once, rather than the
+   * matrices applied one by one.
+   */
+  @Test
+  public void testFastFusedColorTransformations() {
+    Image sepia2 = new SepiaTone(new SepiaTone(img).apply()).apply();
+    double[][] sepia = {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+    double[][] product = new double[3][3];
+    for (int u = 0; u < 3; u++) {
+      for (int v = 0; v < 3; v++) {
+        for (int m = 0; m < 3; m++) {
+          product[u][v] += sepia[u][m] * sepia[m][v];
+        }
+      }
+    }
+
+    ImageProcessingModel model = new ImgProcModel(true);
+    model.setImage(img);
+    model.process(ProcessingOperation.SEPIATONE);
+    model.process(ProcessingOperation.SEPIATONE);
+    Image fused = model.getImage();
+    assertNotEquals(sepia2.getPixels(), fused.getPixels());
+
+    for (int i = 0; i < img.getHeight(); i++) {
+      for (int j = 0; j < img.getWidth(); j++) {
+        for (int c = 0; c < 3; c++) {
+          double value = product[c][0] * img.getChannel(i, j, 0)
+                  + product[c][1] * img.getChannel(i, j, 1)
+                  + product[c][2] * img.getChannel(i, j, 2);
+          assertEquals(Math.max(0, Math.min(255, Math.round(value))), fused.getChannel(i, j, c));
+        }
+      }
+    }
+    model.undo();
+    assertEquals(new SepiaTone(img).apply().getPixels(), model.getImage().getPixels());
+  }
+
+  /**
+   * Test whether a generated image is kept as its generation until it is needed whole, and is then
+   * the same image as generating it at once.
+   */
+  @Test
+  public void testGeneratedImageIsLazy() {
+    Image flag = new GenerationFlagGR(90, 135).apply();
+
+    ImageProcessingModel model = new ImgProcModel();
+    model.generateFlag(90, 135, CountryAlphaCode.GR);
+    assertFalse(model.getSource() instanceof Image);
+    assertEquals(90, model.getImageHeight());
+    assertEquals(135, model.getImageWidth());
+
+    int[] row = new int[135];
+    model.getSource().readRow(40, row, 0);
+    for (int j = 0; j < 135; j++) {
+      assertEquals(flag.getPixel(40, j), row[j]);
+    }
+
+    model.process(ProcessingOperation.GREYSCALE);
+    model.undo();
+    assertTrue(model.getSource() instanceof Image);
+    assertEquals(flag.getPixels(), model.getImage().getPixels());
+  }
+
+  /**
+   * Test whether the history drops the oldest images when they exceed its budget, keeps the
+   * current image even if it exceeds the budget alone, and drops the undone images when a new
+   * image is recorded.
+   */
+  @Test
+  public void testHistoryBudget() {
+    Image blur = new ImageBlurring(img).apply();
+    Image blur2 = new ImageBlurring(blur).apply();
+    long bytes = History.bytesOf(img);
+    long packed = new Snapshot(img, null).bytes();
+    long packedBlur = new Snapshot(blur, null).bytes();
+
+    // room for the current image and the snapshot of the one before it, but not the first one
+    ImageProcessingModel model = new ImgProcModel(false, bytes + packedBlur + packed / 2);
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.BLUR);
+    assertEquals(blur2.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+    try {
+      model.undo();
+      fail("The first image should have been dropped");
+    } catch (IllegalStateException e) {
+      assertEquals("No operation to undo", e.getMessage());
+    }
+
+    // recording after undoing drops the undone image
+    model.process(ProcessingOperation.SHARPEN);
+    try {
+      model.redo();
+      fail("The undone image should have been dropped");
+    } catch (IllegalStateException e) {
+      assertEquals("No operation to redo", e.getMessage());
+    }
+    model.undo();
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+
+    // smaller than one image: only the current image is kept
+    model = new ImgProcModel(false, bytes / 2);
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+    try {
+      model.undo();
+      fail("There should be nothing to undo");
+    } catch (IllegalStateException e) {
+      assertEquals("No operation to undo", e.getMessage());
+    }
+  }
+
+  /**
+   * Test whether the history counts an image shared by several states once, and counts the image
+   * of a run of color transformations once it is computed.
+   */
+  @Test
+  public void testHistoryBytes() {
+    long bytes = History.bytesOf(img);
+    History history = new History(Long.MAX_VALUE);
+
+    history.record(new State(img));
+    State grey = new State(img, Collections.singletonList(ProcessingOperation.GREYSCALE));
+    history.record(grey);
+    assertEquals(bytes, history.bytes());
+
+    grey.image = new Greyscale(img).apply();
+    assertEquals(2 * bytes, history.bytes());
+  }
+
+  /**
+   * Test whether a snapshot gives back the same image, whole or a row at a time, stores a grey
+   * image in fewer bytes than a colored one, and shares the tiles that did not change with the
+   * previous snapshot.
+   */
+  @Test
+  public void testSnapshot() {
+    Image grey = new Greyscale(img).apply();
+
+    for (Image image : new Image[] {img, grey, new GenerationFlagGR(90, 135).apply()}) {
+      Snapshot snapshot = new Snapshot(image, null);
+      assertEquals(image.getPixels(), snapshot.toImage().getPixels());
+
+      int[] row = new int[image.getWidth()];
+      for (int i = image.getHeight() - 1; i >= 0; i -= 7) {
+        snapshot.readRow(i, row, 0);
+        for (int j = 0; j < row.length; j++) {
+          assertEquals(image.getPixel(i, j), row[j]);
+        }
+      }
+    }
+
+    Snapshot colored = new Snapshot(img, null);
+    assertTrue(new Snapshot(grey, null).bytes() < colored.bytes() / 2);
+
+    // one pixel changed: one tile is stored, the others are shared
+    int[] pixels = new int[img.getHeight() * img.getWidth()];
+    img.getPixels().get(pixels);
+    pixels[0] ^= 1;
+    Snapshot changed = new Snapshot(new Image(img.getHeight(), img.getWidth(), pixels), colored);
+    assertEquals(pixels[0], changed.toImage().getPixel(0, 0));
+    assertTrue(changed.storedBytes() < colored.storedBytes() / 10);
+  }
+
+  /**
+   * Test whether the model gives back the images before the current image, which its history keeps
+   * compressed, when they are undone and redone to, and reports the memory its history saves.
+   */
+  @Test
+  public void testCompressedHistory() {
+    Image blur = new ImageBlurring(img).apply();
+    Image dither = new Dither(blur).apply();
+
+    ImgProcModel model = new ImgProcModel();
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.DITHER);
+    model.generateCheckerBoard(10);
+    model.undo();
+    assertEquals(dither.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(img.getPixels(), model.getImage().getPixels());
+    model.redo();
+    model.redo();
+    assertEquals(dither.getPixels(), model.getSource().toImage().getPixels());
+    model.redo();
+    assertEquals(new GenerationCheckerBoard(10).apply().getPixels(),
+            model.getImage().getPixels());
+    assertTrue(model.getHistoryReport().contains("saved"));
+  }
+
+  /**
+   * Test whether a history keeps only the image of its current state uncompressed, so that its
+   * images take fewer bytes than they would uncompressed, by more than the size of an image, and
+   * gives back the images of the states it compressed.
+   */
+  @Test
+  public void testHistoryCompression() {
+    Image blur = new ImageBlurring(img).apply();
+    Image dither = new Dither(blur).apply();
+    History history = new History(Long.MAX_VALUE);
+
+    history.record(new State(img));
+    history.record(new State(blur));
+    history.record(new State(dither));
+    assertNull(history.current().snapshot);
+    assertEquals(3 * History.bytesOf(img), history.rawBytes());
+    assertTrue(history.bytes() < history.rawBytes() - History.bytesOf(img));
+
+    history.undo();
+    assertEquals(blur.getPixels(), history.current().snapshot.toImage().getPixels());
+    history.undo();
+    assertEquals(img.getPixels(), history.current().snapshot.toImage().getPixels());
+  }
+
+  /**
+   * Test whether the images dropped from the history to be replayed are computed again the same
+   * when they are undone and redone to, including a mosaic without a random seed.
+   */
+  @Test
+  public void testReplayHistory() {
+    List<Image> expected = new ArrayList<>();
+    expected.add(img);
+    expected.add(new ImageBlurring(img).apply());
+    expected.add(new ImageSharpening(expected.get(1)).apply());
+    expected.add(new Dither(expected.get(2)).apply());
+    expected.add(new Mosaic(expected.get(3), 50, 7).apply());
+    expected.add(new OrderedDither(expected.get(4), ThresholdMatrix.BAYER4).apply());
+    expected.add(new Greyscale(expected.get(5)).apply());
+    expected.add(new SepiaTone(expected.get(6)).apply());
+    expected.add(new ImageBlurring(expected.get(7)).apply());
+
+    // every image but the first one is replayed
+    ImgProcModel model = new ImgProcModel(false, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.SHARPEN);
+    model.process(ProcessingOperation.DITHER);
+    model.mosaic(50, 7);
+    model.ditherOrdered(ThresholdMatrix.BAYER4);
+    model.process(ProcessingOperation.GREYSCALE);
+    model.process(ProcessingOperation.SEPIATONE);
+    model.process(ProcessingOperation.BLUR);
+
+    for (int k = expected.size() - 1; k > 0; k--) {
+      assertEquals(expected.get(k).getPixels(), model.getImage().getPixels());
+      model.undo();
+    }
+    for (int k = 0; k < expected.size(); k++) {
+      assertEquals(expected.get(k).getPixels(), model.getImage().getPixels());
+      if (k < expected.size() - 1) {
+        model.redo();
+      }
+    }
+    assertFalse(model.getHistoryReport().contains(" 0 images dropped"));
+
+    model.mosaic(50);
+    Image mosaic = model.getImage();
+    model.process(ProcessingOperation.BLUR);
+    model.undo();
+    assertEquals(mosaic.getPixels(), model.getImage().getPixels());
+  }
+
+  /**
+   * Test whether a model without history keeps the current image alone, so that nothing can be
+   * undone, and still applies runs of color transformations.
+   */
+  @Test
+  public void testNoHistory() {
+    ImgProcModel model = new ImgProcModel(false, 0);
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.GREYSCALE);
+    model.process(ProcessingOperation.SEPIATONE);
+    assertEquals(new SepiaTone(new Greyscale(new ImageBlurring(img).apply()).apply()).apply()
+            .getPixels(), model.getImage().getPixels());
+    try {
+      model.undo();
+      fail("There should be nothing to undo");
+    } catch (IllegalStateException e) {
+      assertEquals("No operation to undo", e.getMessage());
+    }
+
+    History history = new History(0);
+    history.record(new State(img));
+    history.record(new State(new ImageBlurring(img).apply()));
+    assertEquals(1, history.size());
+    assertEquals(History.bytesOf(img), history.bytes());
+  }
+
+  /**
+   * Test whether the history spills the snapshots that exceed its budget to a scratch file rather
+   * than dropping them, and reads them back from it when they are undone to.
+   *
+   * @throws IOException if the scratch directory cannot be created
+   */
+  @Test
+  public void testScratchHistory() throws IOException {
+    Image blur = new ImageBlurring(img).apply();
+    Image blur2 = new ImageBlurring(blur).apply();
+    Path directory = Files.createTempDirectory("history");
+    directory.toFile().deleteOnExit();
+
+    // room for the current image, but not for the snapshots on the heap
+    long budget = History.bytesOf(img) + new Snapshot(img, null).bytes() / 2;
+    ImgProcModel model = new ImgProcModel(false, budget, directory);
+    model.setImage(img);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.BLUR);
+    model.process(ProcessingOperation.SHARPEN);
+    model.undo();
+    assertEquals(blur2.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+    model.undo();
+    assertEquals(img.getPixels(), model.getImage().getPixels());
+    model.redo();
+    assertEquals(blur.getPixels(), model.getImage().getPixels());
+    assertFalse(model.getHistoryReport().contains(" 0.0 MB spilled"));
+
+    try {
+      new ImgProcModel(false, 1, directory.resolve("missing"));
+      fail("A missing scratch directory should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Not a directory: " + directory.resolve("missing"), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package imageprocessing.operation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This contains all the unit tests for the lookup tables of the color transformation matrices.
+ */
+public class ColorLookupTableTest {
+
+  /**
+   * Test whether transforming random pixels through the lookup tables of greyscale, sepia tone and
+   * a random matrix with negative weights gives exactly the result of the per-pixel double
+   * arithmetic, rounded and clamped.
+   */
+  @Test
+  public void testSameAsPerPixel() {
+    Random random = new Random(9);
+    Image one = new Image(1, 1, new int[1]);
+    double[][] other = new double[3][3];
+    for (int c = 0; c < 3; c++) {
+      for (int m = 0; m < 3; m++) {
+        other[c][m] = random.nextDouble() * 3 - 1;
+      }
+    }
+    double[][][] matrices = {new Greyscale(one).transMatrix, new SepiaTone(one).transMatrix, other};
+
+    int[] pixels = new int[10000];
+    for (int n = 0; n < pixels.length; n++) {
+      pixels[n] = random.nextInt(0x1000000);
+    }
+
+    for (double[][] matrix : matrices) {
+      ColorLookupTable table = ColorLookupTable.of(matrix);
+      int[] output = new int[pixels.length];
+      table.transform(pixels, 0, pixels.length, output);
+
+      for (int n = 0; n < pixels.length; n++) {
+        int p = pixels[n];
+        int[] expected = new int[3];
+        for (int c = 0; c < 3; c++) {
+          expected[c] = AbstractImageProcessing.clamp((int) Math.round(matrix[c][0] * Image.red(p)
+                  + matrix[c][1] * Image.green(p) + matrix[c][2] * Image.blue(p)));
+        }
+
+        assertEquals(Image.pack(expected[0], expected[1], expected[2]), output[n]);
+        assertEquals(expected[0], table.firstChannel(p));
+      }
+    }
+  }
+
+  /**
+   * Test whether matrices of the same values share one lookup table, and matrices of different
+   * values do not.
+   */
+  @Test
+  public void testSharedTable() {
+    Image one = new Image(1, 1, new int[1]);
+    double[][] greyscale = new Greyscale(one).transMatrix;
+    double[][] copy = new double[3][];
+    for (int c = 0; c < 3; c++) {
+      copy[c] = greyscale[c].clone();
+    }
+
+    assertSame(ColorLookupTable.of(greyscale), ColorLookupTable.of(copy));
+    assertSame(ColorLookupTable.of(greyscale),
+            ColorLookupTable.of(new Greyscale(new Image(2, 1, new int[2])).transMatrix));
+    assertNotSame(ColorLookupTable.of(greyscale),
+            ColorLookupTable.of(new SepiaTone(one).transMatrix));
+  }
+}
@@ -0,0 +1,106 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This contains all the unit tests for the Manhattan distance transform labeling of a mosaic.
+ */
+public class DistanceTransformTest {
+
+  /**
+   * Go back to one thread after each test.
+   */
+  @After
+  public void tearDown() {
+    ParallelExecutor.setThreads(1);
+  }
+
+  /**
+   * Return the index of the seed nearest to every pixel by searching every seed, the first of them
+   * if several seeds are equally near.
+   */
+  private static int[] bruteForce(int height, int width, int[] seedRows, int[] seedCols) {
+    int[] labels = new int[height * width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int best = 0;
+        for (int s = 1; s < seedRows.length; s++) {
+          if (Math.abs(i - seedRows[s]) + Math.abs(j - seedCols[s])
+                  < Math.abs(i - seedRows[best]) + Math.abs(j - seedCols[best])) {
+            best = s;
+          }
+        }
+        labels[i * width + j] = best;
+      }
+    }
+    return labels;
+  }
+
+  /**
+   * Check the labels of both mosaic modes against a search over every seed, for random images and
+   * seeds, including repeated seeds and a single seed.
+   */
+  private static void checkRandom(long seed) {
+    Random random = new Random(seed);
+
+    for (int t = 0; t < 200; t++) {
+      int height = 1 + random.nextInt(50);
+      int width = 1 + random.nextInt(50);
+      int n = t % 4 == 0 ? 1 : 1 + random.nextInt(150);
+      int[] seedRows = new int[n];
+      int[] seedCols = new int[n];
+      for (int s = 0; s < n; s++) {
+        boolean repeat = s > 0 && random.nextInt(4) == 0;
+        seedRows[s] = repeat ? seedRows[s - 1] : random.nextInt(height);
+        seedCols[s] = repeat ? seedCols[s - 1] : random.nextInt(width);
+      }
+
+      int[] expected = bruteForce(height, width, seedRows, seedCols);
+      for (MosaicMode mode : MosaicMode.values()) {
+        assertArrayEquals(expected, Mosaic.label(height, width, seedRows, seedCols, mode));
+      }
+    }
+  }
+
+  /**
+   * Test whether the distance transform gives the same labels as a search over every seed.
+   */
+  @Test
+  public void testSameAsBruteForce() {
+    checkRandom(15);
+  }
+
+  /**
+   * Test whether the distance transform gives the same labels on several threads.
+   */
+  @Test
+  public void testSameAsBruteForceParallel() {
+    ParallelExecutor.setThreads(3);
+    checkRandom(16);
+  }
+
+  /**
+   * Test whether a pixel equally near several seeds is labeled with the first of them, and a
+   * repeated seed with its first index.
+   */
+  @Test
+  public void testTieBreaking() {
+    // (2, 2) is 2 away from the first four seeds, and the last seed repeats the third
+    int[] seedRows = {4, 0, 2, 2, 2};
+    int[] seedCols = {2, 2, 0, 4, 0};
+
+    int[] labels = DistanceTransform.label(5, 5, seedRows, seedCols);
+
+    assertArrayEquals(bruteForce(5, 5, seedRows, seedCols), labels);
+    assertEquals(0, labels[2 * 5 + 2]);
+    assertEquals(1, labels[0]);
+    assertEquals(1, labels[4]);
+    assertEquals(2, labels[2 * 5]);
+  }
+}
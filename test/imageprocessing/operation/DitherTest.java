@@ -0,0 +1,59 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import imageprocessing.util.ImageUtil;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This contains all the unit tests for the dithering operation.
+ */
+public class DitherTest {
+
+  /**
+   * Go back to one thread and turn the fixed-point mode off after each test.
+   */
+  @After
+  public void tearDown() {
+    ParallelExecutor.setThreads(1);
+    FixedPoint.setEnabled(false);
+  }
+
+  /**
+   * Test whether dithering on any number of threads gives the same image as the expected image.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testDitherParallel() throws IOException {
+    Image img = ImageUtil.read("res/img0.jpg");
+    Image expected = ImageUtil.read("res/test/img0-dither.png");
+
+    for (int threads : new int[]{1, 2, 3, 4, 8}) {
+      ParallelExecutor.setThreads(threads);
+      assertEquals(expected.getPixels(), new Dither(img).apply().getPixels());
+    }
+  }
+
+  /**
+   * Test whether dithering gives the expected image in the fixed-point mode too, which must not
+   * change the luminance the pixels are dithered on.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testDitherFixedPoint() throws IOException {
+    Image img = ImageUtil.read("res/img0.jpg");
+    Image expected = ImageUtil.read("res/test/img0-dither.png");
+
+    FixedPoint.setEnabled(true);
+    for (int threads : new int[]{1, 3}) {
+      ParallelExecutor.setThreads(threads);
+      assertEquals(expected.getPixels(), new Dither(img).apply().getPixels());
+    }
+  }
+}
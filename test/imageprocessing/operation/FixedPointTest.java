@@ -0,0 +1,84 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This contains all the unit tests for the fixed-point integer arithmetic mode of the image
+ * filtering and color transformation operations.
+ */
+public class FixedPointTest {
+
+  /**
+   * Turn the fixed-point mode off after each test.
+   */
+  @After
+  public void tearDown() {
+    FixedPoint.setEnabled(false);
+  }
+
+  /**
+   * Test whether blurring and sharpening give the same result in both modes, as their weights are
+   * exact in fixed-point.
+   */
+  @Test
+  public void testFilteringSameAsDouble() throws IOException {
+    for (Image img : TestImages.images()) {
+      for (EdgeMode edgeMode : EdgeMode.values()) {
+        assertSame(img, i -> new ImageBlurring(i, edgeMode).apply());
+        assertSame(img, i -> new ImageSharpening(i, edgeMode).apply());
+      }
+    }
+  }
+
+  /**
+   * Test whether greyscale and sepia tone give a result within 1 of the double arithmetic in every
+   * channel.
+   */
+  @Test
+  public void testColorTransformationWithinOne() throws IOException {
+    for (Image img : TestImages.images()) {
+      assertWithinOne(img, i -> new Greyscale(i).apply());
+      assertWithinOne(img, i -> new SepiaTone(i).apply());
+    }
+  }
+
+  /**
+   * Assert that the given operation gives the same pixels with and without the fixed-point mode.
+   *
+   * @param img       the image to apply the operation to
+   * @param operation the operation
+   */
+  private static void assertSame(Image img, Function<Image, Image> operation) {
+    FixedPoint.setEnabled(false);
+    int[] expected = operation.apply(img).pixelArray();
+    FixedPoint.setEnabled(true);
+    assertArrayEquals(expected, operation.apply(img).pixelArray());
+  }
+
+  /**
+   * Assert that the given operation gives channel values within 1 of each other with and without
+   * the fixed-point mode.
+   *
+   * @param img       the image to apply the operation to
+   * @param operation the operation
+   */
+  private static void assertWithinOne(Image img, Function<Image, Image> operation) {
+    FixedPoint.setEnabled(false);
+    int[] expected = operation.apply(img).pixelArray();
+    FixedPoint.setEnabled(true);
+    int[] actual = operation.apply(img).pixelArray();
+
+    for (int n = 0; n < expected.length; n++) {
+      assertTrue(Math.abs(Image.red(expected[n]) - Image.red(actual[n])) <= 1);
+      assertTrue(Math.abs(Image.green(expected[n]) - Image.green(actual[n])) <= 1);
+      assertTrue(Math.abs(Image.blue(expected[n]) - Image.blue(actual[n])) <= 1);
+    }
+  }
+}
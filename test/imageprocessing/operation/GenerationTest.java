@@ -0,0 +1,186 @@
+package imageprocessing.operation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This contains all the unit tests for the image generation operations. Every generated image is
+ * compared with the color of every pixel given by the rules the operations used when they were
+ * generated one pixel at a time, on sizes that do not divide evenly into squares, units or
+ * stripes.
+ */
+public class GenerationTest {
+  private static final int WHITE = 0xFFFFFF;
+  private static final int BLACK = 0;
+
+  /**
+   * This interface represents the color of every pixel of an image to be generated.
+   */
+  private interface PixelRule {
+    /**
+     * Return the packed color of the pixel at (i, j).
+     *
+     * @param i the row position of the pixel
+     * @param j the column position of the pixel
+     * @return the packed color of the pixel
+     */
+    int color(int i, int j);
+  }
+
+  /**
+   * Assert that the given generation gives the color of the given rule at every pixel, both as a
+   * whole image and a row at a time.
+   *
+   * @param generation the generation operation
+   * @param rule       the color of every pixel
+   */
+  private static void assertSameAsRule(AbstractImageGeneration generation, PixelRule rule) {
+    int height = generation.getHeight();
+    int width = generation.getWidth();
+    int[] expected = new int[height * width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        expected[i * width + j] = rule.color(i, j);
+      }
+    }
+
+    assertArrayEquals(expected, generation.apply().pixelArray());
+
+    // a row read into the middle of a larger array
+    int[] row = new int[width + 4];
+    for (int i = 0; i < height; i++) {
+      generation.readRow(i, row, 2);
+      assertArrayEquals(Arrays.copyOfRange(expected, i * width, (i + 1) * width),
+              Arrays.copyOfRange(row, 2, width + 2));
+    }
+  }
+
+  /**
+   * Test whether boards of squares that do not divide the height or width are generated as the
+   * alternating squares of the pixel rule, the squares at the right and bottom edges cut short.
+   */
+  @Test
+  public void testBoard() {
+    int[][] boards = {{1, 1, 1}, {7, 5, 2}, {13, 29, 4}, {33, 17, 5}, {9, 9, 9}};
+
+    for (int[] board : boards) {
+      int size = board[2];
+      assertSameAsRule(new GenerationBoard(board[0], board[1], size),
+              (i, j) -> (i / size + j / size) % 2 == 0 ? WHITE : BLACK);
+    }
+    assertSameAsRule(new GenerationCheckerBoard(3),
+            (i, j) -> (i / 3 + j / 3) % 2 == 0 ? WHITE : BLACK);
+  }
+
+  /**
+   * Test whether Switzerland flags are generated as the white cross of the pixel rule, which
+   * leaves out the first row and column of each bar: the horizontal bar runs from column 6u + 1
+   * to 26u (exclusive) and the vertical bar from column 13u + 1 to 19u, for a unit u of 1/32 of
+   * the height.
+   */
+  @Test
+  public void testFlagCH() {
+    int red = Image.pack(213, 43, 30);
+
+    for (int height : new int[]{1, 31, 33, 65, 97, 161}) {
+      int unit = height / 32;
+      GenerationFlagCH flag = new GenerationFlagCH(height, height);
+      assertSameAsRule(flag, (i, j) -> {
+        if ((6 * unit < i && i < 26 * unit && 13 * unit < j && j < 19 * unit)
+                || (6 * unit < j && j < 26 * unit && 13 * unit < i && i < 19 * unit)) {
+          return WHITE;
+        }
+        return red;
+      });
+
+      if (unit > 0) {
+        Image img = flag.apply();
+        int middle = 16 * unit;
+        assertEquals(red, img.getPixel(middle, 6 * unit));
+        assertEquals(WHITE, img.getPixel(middle, 6 * unit + 1));
+        assertEquals(WHITE, img.getPixel(middle, 26 * unit - 1));
+        assertEquals(red, img.getPixel(middle, 26 * unit));
+        assertEquals(red, img.getPixel(7 * unit, 13 * unit));
+        assertEquals(WHITE, img.getPixel(7 * unit, 13 * unit + 1));
+        assertEquals(WHITE, img.getPixel(7 * unit, 19 * unit - 1));
+        assertEquals(red, img.getPixel(7 * unit, 19 * unit));
+      }
+    }
+  }
+
+  /**
+   * Test whether France flags of widths that are not a multiple of 3 are generated as the three
+   * bands of the pixel rule.
+   */
+  @Test
+  public void testFlagFR() {
+    int blue = Image.pack(0, 85, 164);
+    int red = Image.pack(239, 65, 53);
+
+    for (int height : new int[]{1, 3, 7, 29, 290}) {
+      GenerationFlagFR flag = new GenerationFlagFR(height, height);
+      int width = flag.getWidth();
+      assertSameAsRule(flag, (i, j) -> j < width / 3 ? blue : j < width / 3 * 2 ? WHITE : red);
+    }
+  }
+
+  /**
+   * Test whether Greece flags of heights that are not a multiple of 9 are generated as the stripes
+   * and the up-left cross of the pixel rule, whose vertical bar is in the columns from 2 stripes
+   * to 3 stripes (exclusive).
+   */
+  @Test
+  public void testFlagGR() {
+    int blue = Image.pack(13, 94, 175);
+
+    for (int height : new int[]{9, 19, 28, 46, 101}) {
+      int stripe = height / 9;
+      int size = stripe * 5;
+      GenerationFlagGR flag = new GenerationFlagGR(height, height);
+      assertSameAsRule(flag, (i, j) -> {
+        if (i < size && j < size) {
+          return i / stripe == 2 || j / stripe == 2 ? WHITE : blue;
+        }
+        return i / stripe % 2 == 0 ? blue : WHITE;
+      });
+
+      Image img = flag.apply();
+      assertEquals(blue, img.getPixel(0, 2 * stripe - 1));
+      assertEquals(WHITE, img.getPixel(0, 2 * stripe));
+      assertEquals(WHITE, img.getPixel(0, 3 * stripe - 1));
+      assertEquals(blue, img.getPixel(0, 3 * stripe));
+    }
+  }
+
+  /**
+   * Test whether rainbows of sizes that are not a multiple of 7 are generated as the stripes of the
+   * pixel rule, in both directions. The last stripe (violet), if the image is large enough to have
+   * it, reaches the bottom or right edge, whether it is shorter or longer than the others.
+   */
+  @Test
+  public void testRainbow() {
+    int[] colors = {Image.pack(255, 0, 0), Image.pack(255, 127, 0), Image.pack(255, 255, 0),
+                    Image.pack(0, 255, 0), Image.pack(0, 0, 255), Image.pack(75, 0, 130),
+                    Image.pack(148, 0, 211)};
+    int violet = colors[6];
+
+    for (int n : new int[]{4, 10, 25, 31, 53}) {
+      int stripe = (int) Math.round(n / 7.0);
+
+      GenerationRainbow horizontal = new GenerationRainbow(n, 5, PatternDirection.HORIZONTAL);
+      assertSameAsRule(horizontal, (i, j) -> colors[Math.min(i / stripe, 6)]);
+
+      GenerationRainbow vertical = new GenerationRainbow(3, n, PatternDirection.VERTICAL);
+      assertSameAsRule(vertical, (i, j) -> colors[Math.min(j / stripe, 6)]);
+
+      if (6 * stripe < n) {
+        assertEquals(violet, horizontal.apply().getPixel(n - 1, 4));
+        assertEquals(violet, vertical.apply().getPixel(2, n - 1));
+      }
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import imageprocessing.util.ImageUtil;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * This contains all the unit tests for the image filtering operations.
+ */
+public class ImageFilteringTest {
+  private static final double[] BLUR = {0.25, 0.5, 0.25};
+  private static final double[] COLUMN = {0.125, 0.5, 0.25, 0.125, 0};
+  private static final double[] ROW = {-0.25, 0.5, 1, 0.5, -0.75};
+
+  /**
+   * Go back to one thread after each test.
+   */
+  @After
+  public void tearDown() {
+    ParallelExecutor.setThreads(1);
+  }
+
+  /**
+   * Test whether blurring and sharpening the example image with the pixels outside the image
+   * counted as 0 give exactly the reference images.
+   */
+  @Test
+  public void testSameAsReferenceImages() throws IOException {
+    Image img = ImageUtil.read("res/img0.jpg");
+
+    assertArrayEquals(ImageUtil.read("res/test/img0-blur.png").pixelArray(),
+            new ImageBlurring(img, EdgeMode.ZERO).apply().pixelArray());
+    assertArrayEquals(ImageUtil.read("res/test/img0-sharpen.png").pixelArray(),
+            new ImageSharpening(img, EdgeMode.ZERO).apply().pixelArray());
+  }
+
+  /**
+   * Test whether a separable kernel applied as two 1D passes gives the same image as its 2D kernel
+   * applied in one pass, in every edge mode.
+   */
+  @Test
+  public void testSeparableSameAsSinglePass() throws IOException {
+    for (Image img : TestImages.images()) {
+      for (EdgeMode edgeMode : EdgeMode.values()) {
+        assertArrayEquals(filter(img, edgeMode, outer(BLUR, BLUR), null, null).pixelArray(),
+                new ImageBlurring(img, edgeMode).apply().pixelArray());
+        assertArrayEquals(filter(img, edgeMode, outer(COLUMN, ROW), null, null).pixelArray(),
+                filter(img, edgeMode, outer(COLUMN, ROW), COLUMN, ROW).pixelArray());
+      }
+    }
+  }
+
+  /**
+   * Test whether filtering in every edge mode gives the same image as a straightforward
+   * convolution of every pixel, for the border and the interior of the image alike.
+   */
+  @Test
+  public void testEdgeModesSameAsReference() throws IOException {
+    double[][] sharpen = {{-0.125, -0.125, -0.125, -0.125, -0.125},
+                          {-0.125, 0.25, 0.25, 0.25, -0.125},
+                          {-0.125, 0.25, 1, 0.25, -0.125},
+                          {-0.125, 0.25, 0.25, 0.25, -0.125},
+                          {-0.125, -0.125, -0.125, -0.125, -0.125}};
+
+    for (Image img : TestImages.images()) {
+      for (EdgeMode edgeMode : EdgeMode.values()) {
+        assertArrayEquals(reference(img, edgeMode, outer(BLUR, BLUR)),
+                new ImageBlurring(img, edgeMode).apply().pixelArray());
+        assertArrayEquals(reference(img, edgeMode, sharpen),
+                new ImageSharpening(img, edgeMode).apply().pixelArray());
+        assertArrayEquals(reference(img, edgeMode, outer(COLUMN, ROW)),
+                filter(img, edgeMode, outer(COLUMN, ROW), null, null).pixelArray());
+      }
+    }
+  }
+
+  /**
+   * Test whether filtering (in one pass and in two 1D passes) and color transformations give the
+   * same image on any number of threads as on one thread.
+   */
+  @Test
+  public void testParallelSameAsOneThread() throws IOException {
+    List<Function<Image, Image>> operations = new ArrayList<>();
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      operations.add(i -> new ImageBlurring(i, edgeMode).apply());
+      operations.add(i -> new ImageSharpening(i, edgeMode).apply());
+      operations.add(i -> filter(i, edgeMode, outer(COLUMN, ROW), null, null));
+    }
+    operations.add(i -> new Greyscale(i).apply());
+    operations.add(i -> new SepiaTone(i).apply());
+
+    for (Image img : TestImages.images()) {
+      for (Function<Image, Image> operation : operations) {
+        ParallelExecutor.setThreads(1);
+        int[] expected = operation.apply(img).pixelArray();
+
+        for (int threads : new int[]{2, 3, 8}) {
+          ParallelExecutor.setThreads(threads);
+          assertArrayEquals(expected, operation.apply(img).pixelArray());
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the outer product of the given column and row vectors.
+   *
+   * @param column the column vector
+   * @param row    the row vector
+   * @return the outer product of the vectors
+   */
+  private static double[][] outer(double[] column, double[] row) {
+    double[][] product = new double[column.length][row.length];
+    for (int u = 0; u < column.length; u++) {
+      for (int v = 0; v < row.length; v++) {
+        product[u][v] = column[u] * row[v];
+      }
+    }
+    return product;
+  }
+
+  /**
+   * Convolve the given image with the given kernel one pixel at a time, resolving every position
+   * outside the image by the given edge mode, and return the resulting pixels.
+   *
+   * @param img      the image to be filtered
+   * @param edgeMode how the pixels outside the image are treated
+   * @param weights  the kernel of the filter
+   * @return the packed pixels of the filtered image
+   */
+  private static int[] reference(Image img, EdgeMode edgeMode, double[][] weights) {
+    int height = img.getHeight();
+    int width = img.getWidth();
+    int half = (weights.length - 1) / 2;
+    int[] output = new int[height * width];
+
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        double[] sum = new double[3];
+
+        for (int u = 0; u < weights.length; u++) {
+          for (int v = 0; v < weights.length; v++) {
+            int row = resolve(edgeMode, i - half + u, height);
+            int col = resolve(edgeMode, j - half + v, width);
+            if (row >= 0 && col >= 0) {
+              int p = img.getPixel(row, col);
+              sum[0] += Image.red(p) * weights[u][v];
+              sum[1] += Image.green(p) * weights[u][v];
+              sum[2] += Image.blue(p) * weights[u][v];
+            }
+          }
+        }
+
+        int[] channels = new int[3];
+        for (int k = 0; k < 3; k++) {
+          channels[k] = (int) Math.max(0, Math.min(255, Math.round(sum[k])));
+        }
+        output[i * width + j] = Image.pack(channels[0], channels[1], channels[2]);
+      }
+    }
+
+    return output;
+  }
+
+  /**
+   * Return the position inside an image of the given size that the given position stands for in
+   * the given edge mode, or -1 if it stands for a 0 pixel. The position is moved back into the
+   * image one step at a time, as the edge mode describes it.
+   *
+   * @param edgeMode how the pixels outside the image are treated
+   * @param k        the position, possibly outside the image
+   * @param n        the size of the image along the dimension of the position
+   * @return the position inside the image, or -1 for 0
+   */
+  private static int resolve(EdgeMode edgeMode, int k, int n) {
+    while (k < 0 || k >= n) {
+      switch (edgeMode) {
+        case ZERO:
+          return -1;
+        case CLAMP:
+          k = k < 0 ? 0 : n - 1;
+          break;
+        case MIRROR:
+          // reflect about the edge pixel, which a single row or column is its own reflection of
+          k = n == 1 ? 0 : k < 0 ? -k : 2 * (n - 1) - k;
+          break;
+        default:
+          k = k < 0 ? k + n : k - n;
+          break;
+      }
+    }
+    return k;
+  }
+
+  /**
+   * Apply a filter with the given kernel to the given image, declared as separable into the given
+   * column and row vectors if they are not null.
+   *
+   * @param img      the image to be filtered
+   * @param edgeMode how the pixels outside the image are treated
+   * @param weights  the 2D kernel of the filter
+   * @param column   the column vector of the kernel, or null
+   * @param row      the row vector of the kernel, or null
+   * @return the filtered image
+   */
+  private static Image filter(Image img, EdgeMode edgeMode, double[][] weights, double[] column,
+                              double[] row) {
+    return new ImageFiltering(img, edgeMode) {
+      {
+        this.kernel = weights;
+        this.columnKernel = column;
+        this.rowKernel = row;
+      }
+    }.apply();
+  }
+}
@@ -0,0 +1,39 @@
+package imageprocessing.operation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This contains all the unit tests for the image.
+ */
+public class ImageTest {
+
+  /**
+   * Test whether an image constructed with an array of packed pixels keeps its pixels when the
+   * array is modified afterwards.
+   */
+  @Test
+  public void testPixelsCopied() {
+    int[] pixels = {0x000000, 0x102030, 0xFFFFFF, 0x0A0B0C, 0x123456, 0xABCDEF};
+    Image img = new Image(2, 3, pixels);
+
+    pixels[4] = 0xFF0000;
+    assertEquals(0x123456, img.getPixel(1, 1));
+    assertEquals(0x102030, img.getPixels().get(1));
+  }
+
+  /**
+   * Test whether an image created by taking ownership of an array of packed pixels uses that array
+   * as its storage, without copying it.
+   */
+  @Test
+  public void testOwnedPixelsNotCopied() {
+    int[] pixels = {0x000000, 0x102030, 0xFFFFFF, 0x0A0B0C, 0x123456, 0xABCDEF};
+    Image img = Image.ofOwned(2, 3, pixels);
+
+    assertSame(pixels, img.pixelArray());
+    assertEquals(0x123456, img.getPixel(1, 1));
+  }
+}
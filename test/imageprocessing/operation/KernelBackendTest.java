@@ -0,0 +1,68 @@
+package imageprocessing.operation;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * This contains all the unit tests for the backends of the image filtering and color
+ * transformation operations.
+ */
+public class KernelBackendTest {
+
+  /**
+   * Test whether the SIMD backend gives the same pixels as the scalar backend for the kernels of
+   * blur and sharpen, in double and fixed-point arithmetic, and for the fixed-point matrices of
+   * greyscale and sepia tone. Widths that are not a multiple of the vector shape leave pixels at
+   * the end of a span for the scalar backend. The test is skipped if the Vector API module is not
+   * available.
+   */
+  @Test
+  public void testVectorSameAsScalar() {
+    KernelBackend vector = KernelBackends.vector();
+    Assume.assumeNotNull(vector);
+    KernelBackend scalar = new ScalarBackend();
+
+    Random random = new Random(11);
+    Image one = new Image(1, 1, new int[1]);
+    double[][][] kernels = {new ImageBlurring(one).kernel, new ImageSharpening(one).kernel};
+    double[][][] matrices = {new Greyscale(one).transMatrix, new SepiaTone(one).transMatrix};
+    int height = 9;
+
+    for (int width : new int[]{5, 9, 17, 31, 64, 101}) {
+      int[] pixels = new int[height * width];
+      for (int n = 0; n < pixels.length; n++) {
+        pixels[n] = random.nextInt(0x1000000);
+      }
+
+      for (double[][] kernel : kernels) {
+        int half = (kernel.length - 1) / 2;
+        int[][] fixedKernel = FixedPoint.toFixed(kernel);
+
+        for (int i = half; i < height - half; i++) {
+          int[] expected = new int[pixels.length];
+          int[] actual = new int[pixels.length];
+          scalar.filterInterior(pixels, width, kernel, i, half, width - half, expected);
+          vector.filterInterior(pixels, width, kernel, i, half, width - half, actual);
+          assertArrayEquals(expected, actual);
+
+          scalar.filterInteriorFixed(pixels, width, fixedKernel, i, half, width - half, expected);
+          vector.filterInteriorFixed(pixels, width, fixedKernel, i, half, width - half, actual);
+          assertArrayEquals(expected, actual);
+        }
+      }
+
+      for (double[][] matrix : matrices) {
+        int[][] fixedMatrix = FixedPoint.toFixed(matrix);
+        int[] expected = new int[pixels.length];
+        int[] actual = new int[pixels.length];
+        scalar.transformFixed(pixels, fixedMatrix, 0, pixels.length, expected);
+        vector.transformFixed(pixels, fixedMatrix, 0, pixels.length, actual);
+        assertArrayEquals(expected, actual);
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * This contains all the unit tests for the mosaic operation.
+ */
+public class MosaicTest {
+
+  /**
+   * Go back to one thread after each test.
+   */
+  @After
+  public void tearDown() {
+    ParallelExecutor.setThreads(1);
+  }
+
+  /**
+   * Create an image of the given size where every pixel has a different color.
+   */
+  private static Image distinctImage(int height, int width) {
+    int[] pixels = new int[height * width];
+    Random random = new Random(17);
+    for (int k = 0; k < pixels.length; k++) {
+      pixels[k] = (k << 8) | random.nextInt(256);
+    }
+    return new Image(height, width, pixels);
+  }
+
+  /**
+   * Return the number of distinct colors of the given image.
+   */
+  private static int colors(Image img) {
+    Set<Integer> colors = new HashSet<>();
+    for (int[][] row : img.getRGB()) {
+      for (int[] p : row) {
+        colors.add(Image.pack(p[0], p[1], p[2]));
+      }
+    }
+    return colors.size();
+  }
+
+  /**
+   * Return the pixels of the mosaic of the given image with seeds at the given positions, computed
+   * the way the mosaic operation did before it labeled the pixels in an array: the distance of
+   * every pixel to every seed is compared, the pixel is added to the list of the pixels of its
+   * nearest seed (the first of them if several are equally near), and every list is painted with
+   * the rounded average color of its pixels.
+   */
+  private static int[] clusterMosaic(Image img, int[] positions) {
+    int h = img.getHeight();
+    int w = img.getWidth();
+    List<List<Integer>> clusters = new ArrayList<>();
+    for (int a = 0; a < positions.length; a++) {
+      clusters.add(new ArrayList<>());
+    }
+
+    for (int i = 0; i < h; i++) {
+      for (int j = 0; j < w; j++) {
+        int nearest = 0;
+        int min = Integer.MAX_VALUE;
+        for (int a = 0; a < positions.length; a++) {
+          int distance = Math.abs(i - positions[a] / w) + Math.abs(j - positions[a] % w);
+          if (distance < min) {
+            min = distance;
+            nearest = a;
+          }
+        }
+        clusters.get(nearest).add(i * w + j);
+      }
+    }
+
+    int[] output = new int[h * w];
+    for (List<Integer> cluster : clusters) {
+      double sumR = 0;
+      double sumG = 0;
+      double sumB = 0;
+      for (int k : cluster) {
+        int p = img.getPixel(k / w, k % w);
+        sumR += Image.red(p);
+        sumG += Image.green(p);
+        sumB += Image.blue(p);
+      }
+
+      int n = cluster.size();
+      int color = Image.pack((int) Math.round(sumR / n), (int) Math.round(sumG / n),
+              (int) Math.round(sumB / n));
+      for (int k : cluster) {
+        output[k] = color;
+      }
+    }
+
+    return output;
+  }
+
+  /**
+   * Test whether labeling the pixels and averaging the clusters with running sums gives the same
+   * mosaic as the lists of the pixels of every seed did, in both mosaic modes, for images of odd
+   * sizes and the same random seed.
+   */
+  @Test
+  public void testSameAsClusterLists() {
+    Random random = new Random(5);
+    int[][] sizes = {{1, 1}, {7, 5}, {37, 23}, {60, 81}};
+
+    for (int[] size : sizes) {
+      int[] pixels = new int[size[0] * size[1]];
+      for (int k = 0; k < pixels.length; k++) {
+        pixels[k] = random.nextInt(0x1000000);
+      }
+      Image img = new Image(size[0], size[1], pixels);
+
+      for (int seeds : new int[]{1, 5, 40, 300}) {
+        int[] expected = clusterMosaic(img, Mosaic.getSeeds(pixels.length, seeds, 11));
+
+        for (MosaicMode mode : MosaicMode.values()) {
+          assertArrayEquals(expected, new Mosaic(img, seeds, 11, mode).apply().pixelArray());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test whether the same image, number of seeds and random seed give the same mosaic, in both
+   * mosaic modes, and a different random seed a different mosaic.
+   */
+  @Test
+  public void testSameRandomSeed() {
+    Image img = distinctImage(60, 80);
+    Image expected = new Mosaic(img, 40, 7).apply();
+
+    for (MosaicMode mode : MosaicMode.values()) {
+      assertEquals(expected.getPixels(), new Mosaic(img, 40, 7, mode).apply().getPixels());
+    }
+    assertNotEquals(expected.getPixels(), new Mosaic(img, 40, 8).apply().getPixels());
+  }
+
+  /**
+   * Test whether the mosaic is the same on any number of threads, in both mosaic modes.
+   */
+  @Test
+  public void testParallel() {
+    Image img = distinctImage(97, 61);
+
+    for (MosaicMode mode : MosaicMode.values()) {
+      for (int seeds : new int[]{1, 5, 300}) {
+        ParallelExecutor.setThreads(1);
+        Image expected = new Mosaic(img, seeds, 3, mode).apply();
+
+        for (int threads : new int[]{2, 3, 8}) {
+          ParallelExecutor.setThreads(threads);
+          assertEquals(expected.getPixels(), new Mosaic(img, seeds, 3, mode).apply().getPixels());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test whether the mosaic has exactly as many clusters as the number of seeds, which is seen as
+   * the number of colors when every pixel of the image has a different color.
+   */
+  @Test
+  public void testNumberOfSeeds() {
+    // pixels of different colors may average to the same color in big clusters, so keep them small
+    Image img = distinctImage(30, 40);
+
+    for (int seeds : new int[]{1, 2, 10, 300, 1199, 1200}) {
+      assertEquals(seeds, colors(new Mosaic(img, seeds, seeds).apply()));
+    }
+  }
+
+  /**
+   * Test whether a mosaic with a seed at every pixel, or more seeds than pixels, is the image
+   * itself.
+   */
+  @Test
+  public void testSeedAtEveryPixel() {
+    Image img = distinctImage(9, 11);
+
+    assertEquals(img.getPixels(), new Mosaic(img, 99, 1).apply().getPixels());
+    assertEquals(img.getPixels(), new Mosaic(img, 1000, 1).apply().getPixels());
+  }
+}
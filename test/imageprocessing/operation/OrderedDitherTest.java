@@ -0,0 +1,109 @@
+package imageprocessing.operation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import imageprocessing.util.ImageUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This contains all the unit tests for the ordered dithering operation.
+ */
+public class OrderedDitherTest {
+
+  /**
+   * Go back to one thread and turn the fixed-point mode off after each test.
+   */
+  @After
+  public void tearDown() {
+    ParallelExecutor.setThreads(1);
+    FixedPoint.setEnabled(false);
+  }
+
+  /**
+   * Test whether an image of a single grey dithered with a Bayer matrix gives the expected pattern,
+   * repeated over the image.
+   */
+  @Test
+  public void testBayerPattern() {
+    int[] pixels = new int[6 * 5];
+    Arrays.fill(pixels, 0x808080);
+    Image dithered = new OrderedDither(new Image(6, 5, pixels), ThresholdMatrix.BAYER2).apply();
+
+    // the thresholds of the 2x2 Bayer matrix are 31, 159, 223 and 95
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 5; j++) {
+        boolean white = (i % 2 == 0) == (j % 2 == 0);
+        assertEquals(white ? 0xFFFFFF : 0, dithered.getPixel(i, j));
+      }
+    }
+  }
+
+  /**
+   * Test whether every threshold matrix keeps the mean luminance of a grey image, up to the levels
+   * of grey it can give, and whether every pixel is black or white.
+   */
+  @Test
+  public void testMeanLuminance() {
+    for (ThresholdMatrix matrix : ThresholdMatrix.values()) {
+      for (int grey : new int[]{0, 40, 128, 200, 255}) {
+        int[] pixels = new int[64 * 64];
+        Arrays.fill(pixels, grey * 0x010101);
+        Image dithered = new OrderedDither(new Image(64, 64, pixels), matrix).apply();
+
+        int white = 0;
+        for (int p : dithered.pixelArray()) {
+          assertTrue(p == 0 || p == 0xFFFFFF);
+          white += p == 0 ? 0 : 1;
+        }
+        // a matrix of n cells gives n + 1 levels of grey
+        double cells = matrix.size() * matrix.size();
+        assertEquals(grey / 255.0, white / (64.0 * 64.0), 1 / cells + 0.01);
+      }
+    }
+  }
+
+  /**
+   * Test whether ordered dithering on any number of threads gives the same image.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testParallel() throws IOException {
+    Image img = ImageUtil.read("res/img0.jpg");
+
+    for (ThresholdMatrix matrix : ThresholdMatrix.values()) {
+      Image expected = new OrderedDither(img, matrix).apply();
+
+      for (int threads : new int[]{2, 3, 8}) {
+        ParallelExecutor.setThreads(threads);
+        assertEquals(expected.getPixels(), new OrderedDither(img, matrix).apply().getPixels());
+      }
+      ParallelExecutor.setThreads(1);
+    }
+  }
+
+  /**
+   * Test whether ordered dithering gives the same image in the fixed-point mode, which must not
+   * change the luminance the pixels are compared with the thresholds on.
+   *
+   * @throws IOException if error occurs during image file I/O operations
+   */
+  @Test
+  public void testFixedPoint() throws IOException {
+    Image img = ImageUtil.read("res/img0.jpg");
+
+    for (ThresholdMatrix matrix : ThresholdMatrix.values()) {
+      Image expected = new OrderedDither(img, matrix).apply();
+
+      FixedPoint.setEnabled(true);
+      assertEquals(expected.getPixels(), new OrderedDither(img, matrix).apply().getPixels());
+      FixedPoint.setEnabled(false);
+    }
+  }
+}
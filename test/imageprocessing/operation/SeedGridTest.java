@@ -0,0 +1,73 @@
+package imageprocessing.operation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This contains all the unit tests for the spatial index of the seeds of a mosaic.
+ */
+public class SeedGridTest {
+
+  /**
+   * Return the index of the seed nearest to (i, j) by searching every seed, the first of them if
+   * several seeds are equally near.
+   */
+  private static int bruteForce(int i, int j, int[] seedRows, int[] seedCols) {
+    int best = 0;
+    for (int s = 1; s < seedRows.length; s++) {
+      if (Math.abs(i - seedRows[s]) + Math.abs(j - seedCols[s])
+              < Math.abs(i - seedRows[best]) + Math.abs(j - seedCols[best])) {
+        best = s;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Test whether the nearest seed of every pixel is the one a search over every seed finds, for
+   * random images and seeds, including repeated seeds and a single seed.
+   */
+  @Test
+  public void testSameAsBruteForce() {
+    Random random = new Random(14);
+
+    for (int t = 0; t < 200; t++) {
+      int height = 1 + random.nextInt(50);
+      int width = 1 + random.nextInt(50);
+      int n = t % 4 == 0 ? 1 : 1 + random.nextInt(150);
+      int[] seedRows = new int[n];
+      int[] seedCols = new int[n];
+      for (int s = 0; s < n; s++) {
+        boolean repeat = s > 0 && random.nextInt(4) == 0;
+        seedRows[s] = repeat ? seedRows[s - 1] : random.nextInt(height);
+        seedCols[s] = repeat ? seedCols[s - 1] : random.nextInt(width);
+      }
+
+      SeedGrid grid = new SeedGrid(height, width, seedRows, seedCols);
+      for (int i = 0; i < height; i++) {
+        for (int j = 0; j < width; j++) {
+          assertEquals(bruteForce(i, j, seedRows, seedCols), grid.nearest(i, j));
+        }
+      }
+    }
+  }
+
+  /**
+   * Test whether a pixel equally near several seeds belongs to the first of them.
+   */
+  @Test
+  public void testTieBreaking() {
+    // (2, 2) is 2 away from every seed
+    int[] seedRows = {4, 0, 2, 2};
+    int[] seedCols = {2, 2, 0, 4};
+    SeedGrid grid = new SeedGrid(5, 5, seedRows, seedCols);
+
+    assertEquals(0, grid.nearest(2, 2));
+    assertEquals(1, grid.nearest(0, 0));
+    assertEquals(1, grid.nearest(0, 4));
+    assertEquals(2, grid.nearest(1, 0));
+  }
+}
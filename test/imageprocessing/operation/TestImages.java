@@ -0,0 +1,39 @@
+package imageprocessing.operation;
+
+import java.io.IOException;
+import java.util.Random;
+
+import imageprocessing.util.ImageUtil;
+
+/**
+ * This class contains the images the unit tests of the operations are run on.
+ */
+final class TestImages {
+
+  private TestImages() {
+  }
+
+  /**
+   * Return the images to test the operations on: an example image and random images of several
+   * sizes, some of them smaller than a kernel. The random images are the same on every call.
+   *
+   * @return the images to test on
+   * @throws IOException if the example image cannot be read
+   */
+  static Image[] images() throws IOException {
+    Random random = new Random(42);
+    int[][] sizes = {{1, 1}, {2, 3}, {4, 1}, {7, 5}, {37, 23}, {64, 80}};
+    Image[] images = new Image[sizes.length + 1];
+
+    images[0] = ImageUtil.read("res/img0.jpg");
+    for (int k = 0; k < sizes.length; k++) {
+      int[] pixels = new int[sizes[k][0] * sizes[k][1]];
+      for (int n = 0; n < pixels.length; n++) {
+        pixels[n] = random.nextInt(0x1000000);
+      }
+      images[k + 1] = new Image(sizes[k][0], sizes[k][1], pixels);
+    }
+
+    return images;
+  }
+}
@@ -0,0 +1,200 @@
+package imageprocessing.operation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class represents the SIMD backend of the image filtering and color transformation
+ * operations built on the Java Vector API, and offers all the methods mandated by the {@link
+ * KernelBackend} interface. It works on as many pixels at a time as the preferred vector shape of
+ * the platform holds, in single precision or fixed-point integers for 3x3 and 5x5 convolutions,
+ * and in fixed-point integers for 3x3 color matrices. The pixels left over at the end of a span go
+ * through the scalar backend. With weights of at most a few bits (like those of blur and sharpen)
+ * the results are the same as the scalar backend; with other weights they may differ by 1 where a
+ * value is within rounding of a half.
+ *
+ * <p>This class needs the incubating module jdk.incubator.vector, both to compile and to run
+ * ({@code --add-modules jdk.incubator.vector}). It is only loaded by {@link KernelBackends} when
+ * the module is present.
+ */
+class VectorBackend implements KernelBackend {
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+  private final ScalarBackend scalar = new ScalarBackend();
+
+  @Override
+  public boolean accelerates(int dimOfKernel) {
+    return dimOfKernel == 3 || dimOfKernel == 5;
+  }
+
+  @Override
+  public void filterInterior(int[] pixels, int width, double[][] kernel, int i, int start,
+                             int end, int[] output) {
+    int dimOfKernel = kernel.length;
+    if (!accelerates(dimOfKernel)) {
+      scalar.filterInterior(pixels, width, kernel, i, start, end, output);
+      return;
+    }
+
+    int half = (dimOfKernel - 1) / 2;
+    float[] weights = new float[dimOfKernel * dimOfKernel];
+    for (int u = 0; u < dimOfKernel; u++) {
+      for (int v = 0; v < dimOfKernel; v++) {
+        weights[u * dimOfKernel + v] = (float) kernel[u][v];
+      }
+    }
+
+    int lanes = INTS.length();
+    int j = start;
+
+    for (; j + lanes <= end; j += lanes) {
+      FloatVector r = FloatVector.zero(FLOATS);
+      FloatVector g = FloatVector.zero(FLOATS);
+      FloatVector b = FloatVector.zero(FLOATS);
+
+      for (int u = 0; u < dimOfKernel; u++) {
+        int first = (i - half + u) * width + j - half;
+
+        for (int v = 0; v < dimOfKernel; v++) {
+          IntVector p = IntVector.fromArray(INTS, pixels, first + v);
+          float weight = weights[u * dimOfKernel + v];
+          r = r.add(channel(p, 16).mul(weight));
+          g = g.add(channel(p, 8).mul(weight));
+          b = b.add(channel(p, 0).mul(weight));
+        }
+      }
+
+      pack(r, g, b).intoArray(output, i * width + j);
+    }
+
+    scalar.filterInterior(pixels, width, kernel, i, j, end, output);
+  }
+
+  @Override
+  public void filterInteriorFixed(int[] pixels, int width, int[][] kernel, int i, int start,
+                                  int end, int[] output) {
+    int dimOfKernel = kernel.length;
+    int half = (dimOfKernel - 1) / 2;
+    int lanes = INTS.length();
+    int j = start;
+
+    for (; j + lanes <= end; j += lanes) {
+      IntVector r = IntVector.zero(INTS);
+      IntVector g = IntVector.zero(INTS);
+      IntVector b = IntVector.zero(INTS);
+
+      for (int u = 0; u < dimOfKernel; u++) {
+        int first = (i - half + u) * width + j - half;
+
+        for (int v = 0; v < dimOfKernel; v++) {
+          IntVector p = IntVector.fromArray(INTS, pixels, first + v);
+          int weight = kernel[u][v];
+          r = r.add(intChannel(p, 16).mul(weight));
+          g = g.add(intChannel(p, 8).mul(weight));
+          b = b.add(intChannel(p, 0).mul(weight));
+        }
+      }
+
+      packFixed(r, g, b).intoArray(output, i * width + j);
+    }
+
+    scalar.filterInteriorFixed(pixels, width, kernel, i, j, end, output);
+  }
+
+  @Override
+  public void transformFixed(int[] pixels, int[][] matrix, int start, int end, int[] output) {
+    int lanes = INTS.length();
+    int k = start;
+
+    for (; k + lanes <= end; k += lanes) {
+      IntVector p = IntVector.fromArray(INTS, pixels, k);
+      IntVector r = intChannel(p, 16);
+      IntVector g = intChannel(p, 8);
+      IntVector b = intChannel(p, 0);
+
+      packFixed(r.mul(matrix[0][0]).add(g.mul(matrix[0][1])).add(b.mul(matrix[0][2])),
+              r.mul(matrix[1][0]).add(g.mul(matrix[1][1])).add(b.mul(matrix[1][2])),
+              r.mul(matrix[2][0]).add(g.mul(matrix[2][1])).add(b.mul(matrix[2][2])))
+              .intoArray(output, k);
+    }
+
+    scalar.transformFixed(pixels, matrix, k, end, output);
+  }
+
+  /**
+   * Extract the channel at the given bit position from the given packed pixels as integers.
+   *
+   * @param pixels the packed pixels
+   * @param shift  the bit position of the channel (16 for red, 8 for green and 0 for blue)
+   * @return the values of the channel
+   */
+  private static IntVector intChannel(IntVector pixels, int shift) {
+    return pixels.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+  }
+
+  /**
+   * Round the given fixed-point channel sums to integers, clamp them to 0-255 and return them
+   * packed as 0xRRGGBB, like {@link FixedPoint#toChannel(int)} does for one value.
+   *
+   * @param r the red sums
+   * @param g the green sums
+   * @param b the blue sums
+   * @return the packed pixels
+   */
+  private static IntVector packFixed(IntVector r, IntVector g, IntVector b) {
+    return roundFixed(r).lanewise(VectorOperators.LSHL, 16)
+            .or(roundFixed(g).lanewise(VectorOperators.LSHL, 8))
+            .or(roundFixed(b));
+  }
+
+  /**
+   * Round the given fixed-point sums to integers and clamp them to 0-255.
+   *
+   * @param sums the fixed-point sums
+   * @return the rounded values
+   */
+  private static IntVector roundFixed(IntVector sums) {
+    return sums.add(FixedPoint.HALF).lanewise(VectorOperators.ASHR, FixedPoint.SHIFT)
+            .max(0).min(255);
+  }
+
+  /**
+   * Extract the channel at the given bit position from the given packed pixels as floats.
+   *
+   * @param pixels the packed pixels
+   * @param shift  the bit position of the channel (16 for red, 8 for green and 0 for blue)
+   * @return the values of the channel
+   */
+  private static FloatVector channel(IntVector pixels, int shift) {
+    return (FloatVector) intChannel(pixels, shift).convertShape(VectorOperators.I2F, FLOATS, 0);
+  }
+
+  /**
+   * Clamp the given channel values to 0-255, round them to the nearest integer (halves up, like
+   * {@link Math#round(float)}) and return them packed as 0xRRGGBB.
+   *
+   * @param r the red values
+   * @param g the green values
+   * @param b the blue values
+   * @return the packed pixels
+   */
+  private static IntVector pack(FloatVector r, FloatVector g, FloatVector b) {
+    return round(r).lanewise(VectorOperators.LSHL, 16)
+            .or(round(g).lanewise(VectorOperators.LSHL, 8))
+            .or(round(b));
+  }
+
+  /**
+   * Clamp the given values to 0-255 and round them to the nearest integer. Once clamped, the values
+   * are not negative, so adding a half and truncating rounds them like {@link Math#round(float)}.
+   *
+   * @param values the values to be rounded
+   * @return the rounded values
+   */
+  private static IntVector round(FloatVector values) {
+    return (IntVector) values.max(0f).min(255f).add(0.5f)
+            .convertShape(VectorOperators.F2I, INTS, 0);
+  }
+}